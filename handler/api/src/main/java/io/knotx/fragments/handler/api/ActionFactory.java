@@ -31,7 +31,10 @@ public interface ActionFactory {
   String getName();
 
   /**
-   * Creates an instance of {@link Action} class.
+   * Creates an instance of {@link Action} class. Task graphs are compiled once when the handler
+   * starts, so the created action is shared by all requests and can be applied concurrently. It
+   * must not keep a per-request state, the request data is available in the {@code
+   * FragmentContext} passed to {@link Action#apply}.
    *
    * @param alias - action alias
    * @param config - JSON configuration
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.api;
+
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.codegen.annotations.ProxyGen;
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import java.util.List;
+
+/**
+ * Batch contract of the {@link Knot}. It processes many fragment contexts with a single event bus
+ * message and replies with results in the same order. A failure of a single fragment should be
+ * returned as a result with the {@link FragmentResult#ERROR_TRANSITION}, a failed reply fails all
+ * fragments of the batch.
+ */
+@ProxyGen
+@VertxGen
+public interface BatchKnot {
+
+  static BatchKnot createProxy(Vertx vertx, String address) {
+    return new BatchKnotVertxEBProxy(vertx, address);
+  }
+
+  static BatchKnot createProxyWithOptions(Vertx vertx, String address,
+      DeliveryOptions deliveryOptions) {
+    return new BatchKnotVertxEBProxy(vertx, address, deliveryOptions);
+  }
+
+  /**
+   * Adapts the knot to the batch contract, so an existing knot can be registered at the batch
+   * address too. Fragments of the batch are applied concurrently.
+   *
+   * @param knot knot applied to each fragment of the batch
+   * @return batch knot
+   */
+  static BatchKnot fromKnot(Knot knot) {
+    return new KnotBatchAdapter(knot);
+  }
+
+  void applyBatch(List<FragmentContext> fragmentContexts,
+      Handler<AsyncResult<List<FragmentResult>>> result);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.api;
+
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class KnotBatchAdapter implements BatchKnot {
+
+  private final Knot knot;
+
+  KnotBatchAdapter(Knot knot) {
+    this.knot = knot;
+  }
+
+  @Override
+  public void applyBatch(List<FragmentContext> fragmentContexts,
+      Handler<AsyncResult<List<FragmentResult>>> result) {
+    FragmentResult[] results = new FragmentResult[fragmentContexts.size()];
+    AtomicInteger pending = new AtomicInteger(results.length);
+    if (results.length == 0) {
+      result.handle(Future.succeededFuture(Arrays.asList(results)));
+      return;
+    }
+    for (int i = 0; i < results.length; i++) {
+      int index = i;
+      FragmentContext fragmentContext = fragmentContexts.get(index);
+      knot.apply(fragmentContext, ar -> {
+        results[index] = ar.succeeded() ? ar.result()
+            : new FragmentResult(fragmentContext.getFragment(), FragmentResult.ERROR_TRANSITION);
+        if (pending.decrementAndGet() == 0) {
+          result.handle(Future.succeededFuture(Arrays.asList(results)));
+        }
+      });
+    }
+  }
+}
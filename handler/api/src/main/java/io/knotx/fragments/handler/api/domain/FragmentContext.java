@@ -29,24 +29,35 @@ public class FragmentContext {
 
   private static final String FRAGMENT_KEY = "fragment";
   private static final String CLIENT_REQUEST_KEY = "clientRequest";
+  private static final String DEADLINE_KEY = "deadline";
+
+  public static final long NO_DEADLINE = 0L;
 
   private final Fragment fragment;
   private final ClientRequest clientRequest;
+  private final long deadline;
 
   public FragmentContext(Fragment fragment, ClientRequest clientRequest) {
+    this(fragment, clientRequest, NO_DEADLINE);
+  }
+
+  public FragmentContext(Fragment fragment, ClientRequest clientRequest, long deadline) {
     this.fragment = fragment;
     this.clientRequest = clientRequest;
+    this.deadline = deadline;
   }
 
   public FragmentContext(JsonObject json) {
     this.fragment = new Fragment(json.getJsonObject(FRAGMENT_KEY));
     this.clientRequest = new ClientRequest(json.getJsonObject(CLIENT_REQUEST_KEY));
+    this.deadline = json.getLong(DEADLINE_KEY, NO_DEADLINE);
   }
 
   public JsonObject toJson() {
     return new JsonObject()
         .put(FRAGMENT_KEY, fragment.toJson())
-        .put(CLIENT_REQUEST_KEY, clientRequest.toJson());
+        .put(CLIENT_REQUEST_KEY, clientRequest.toJson())
+        .put(DEADLINE_KEY, deadline);
   }
 
   /**
@@ -68,6 +79,24 @@ public class FragmentContext {
     return clientRequest;
   }
 
+  /**
+   * Time (epoch milliseconds) when the request processing budget is exhausted. Actions should not
+   * wait for results longer than this deadline. {@link #NO_DEADLINE} means the request has no time
+   * budget.
+   *
+   * @return request deadline
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * @return {@code true} if the request has a time budget
+   */
+  public boolean hasDeadline() {
+    return deadline != NO_DEADLINE;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -77,13 +106,14 @@ public class FragmentContext {
       return false;
     }
     FragmentContext that = (FragmentContext) o;
-    return Objects.equals(fragment, that.fragment) &&
+    return deadline == that.deadline &&
+        Objects.equals(fragment, that.fragment) &&
         Objects.equals(clientRequest, that.clientRequest);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(fragment, clientRequest);
+    return Objects.hash(fragment, clientRequest, deadline);
   }
 
   @Override
@@ -91,6 +121,7 @@ public class FragmentContext {
     return "FragmentContext{" +
         "fragment=" + fragment +
         ", clientRequest=" + clientRequest +
+        ", deadline=" + deadline +
         '}';
   }
 }
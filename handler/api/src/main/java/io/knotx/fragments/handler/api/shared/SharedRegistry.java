@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.api.shared;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Registry of resources shared by name in the Vert.x instance, e.g. bulkheads, circuit breakers or
+ * cache regions used by many handler instances. A resource is created once, with the configuration
+ * of the first caller. Callers requesting the same name with a different configuration get the
+ * registered resource and a warning is logged. Resources owned by verticles (timers, files) can be
+ * reference counted, so they are closed by the last verticle using them.
+ */
+public final class SharedRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedRegistry.class);
+
+  private SharedRegistry() {
+    // utility class
+  }
+
+  /**
+   * Returns the resource registered under the name, creating it when it is not registered yet. The
+   * factory is called at most once per name, so it may allocate resources (pools, files) that are
+   * never discarded.
+   *
+   * @param vertx Vert.x instance
+   * @param registry name of the local map holding the resources
+   * @param name resource name
+   * @param configuration configuration the resource is created with, compared with {@code equals}
+   * @param factory creates the resource
+   * @param <T> resource type
+   * @return registered resource
+   */
+  public static <T> T getOrCreate(Vertx vertx, String registry, String name,
+      Object configuration, Supplier<T> factory) {
+    LocalMap<String, Entry<T>> resources = vertx.sharedData().getLocalMap(registry);
+    return resource(registry, name, entry(resources, name, configuration), configuration,
+        factory);
+  }
+
+  /**
+   * Returns the resource registered under the name like {@link #getOrCreate(Vertx, String, String,
+   * Object, Supplier)} and counts the reference. Each acquired reference must be released with
+   * {@link #release(Vertx, String, String, Consumer)}, the resource is removed from the registry
+   * when the last reference is released.
+   *
+   * @param vertx Vert.x instance
+   * @param registry name of the local map holding the resources
+   * @param name resource name
+   * @param configuration configuration the resource is created with, compared with {@code equals}
+   * @param factory creates the resource
+   * @param <T> resource type
+   * @return registered resource
+   */
+  public static <T> T acquire(Vertx vertx, String registry, String name,
+      Object configuration, Supplier<T> factory) {
+    LocalMap<String, Entry<T>> resources = vertx.sharedData().getLocalMap(registry);
+    while (true) {
+      Entry<T> entry = entry(resources, name, configuration);
+      synchronized (entry) {
+        if (!entry.removed) {
+          entry.references++;
+          return resource(registry, name, entry, configuration, factory);
+        }
+      }
+      // the last reference was released concurrently, the entry is registered again
+    }
+  }
+
+  /**
+   * Releases the reference acquired with {@link #acquire(Vertx, String, String, Object,
+   * Supplier)}. When it is the last reference, the resource is removed from the registry and
+   * passed to the close action.
+   *
+   * @param vertx Vert.x instance
+   * @param registry name of the local map holding the resources
+   * @param name resource name
+   * @param close closes the resource released by the last reference
+   * @param <T> resource type
+   */
+  public static <T> void release(Vertx vertx, String registry, String name, Consumer<T> close) {
+    LocalMap<String, Entry<T>> resources = vertx.sharedData().getLocalMap(registry);
+    Entry<T> entry = resources.get(name);
+    if (entry == null) {
+      return;
+    }
+    boolean last;
+    synchronized (entry) {
+      last = entry.references > 0 && --entry.references == 0;
+      if (last) {
+        entry.removed = true;
+        resources.removeIfPresent(name, entry);
+      }
+    }
+    if (last && entry.resource != null) {
+      close.accept(entry.resource);
+    }
+  }
+
+  /**
+   * Returns the resource registered under the name.
+   *
+   * @param vertx Vert.x instance
+   * @param registry name of the local map holding the resources
+   * @param name resource name
+   * @param <T> resource type
+   * @return registered resource or {@code null}
+   */
+  public static <T> T get(Vertx vertx, String registry, String name) {
+    LocalMap<String, Entry<T>> resources = vertx.sharedData().getLocalMap(registry);
+    Entry<T> entry = resources.get(name);
+    return entry == null ? null : entry.resource;
+  }
+
+  /**
+   * Releases the reference acquired with {@link #acquire(Vertx, String, String, Object,
+   * Supplier)}. When it is the last reference, the resource is removed from the registry.
+   *
+   * @param vertx Vert.x instance
+   * @param registry name of the local map holding the resources
+   * @param name resource name
+   */
+  public static void release(Vertx vertx, String registry, String name) {
+    release(vertx, registry, name, resource -> {
+    });
+  }
+
+  private static <T> Entry<T> entry(LocalMap<String, Entry<T>> resources, String name,
+      Object configuration) {
+    Entry<T> entry = resources.get(name);
+    if (entry == null) {
+      Entry<T> created = new Entry<>(configuration);
+      entry = resources.putIfAbsent(name, created);
+      if (entry == null) {
+        entry = created;
+      }
+    }
+    return entry;
+  }
+
+  private static <T> T resource(String registry, String name, Entry<T> entry,
+      Object configuration, Supplier<T> factory) {
+    if (!Objects.equals(entry.configuration, configuration)) {
+      LOGGER.warn("Shared [{}] resource [{}] is already configured with [{}], ignoring [{}].",
+          registry, name, entry.configuration, configuration);
+    }
+    return entry.resource(factory);
+  }
+
+  /**
+   * Registry entry. The resource is created by the first caller, callers of the same name wait for
+   * it on the entry lock, so resources of other names are created concurrently.
+   */
+  private static final class Entry<T> implements Shareable {
+
+    private final Object configuration;
+    private volatile T resource;
+    private int references;
+    private boolean removed;
+
+    private Entry(Object configuration) {
+      this.configuration = configuration;
+    }
+
+    private T resource(Supplier<T> factory) {
+      T current = resource;
+      if (current == null) {
+        synchronized (this) {
+          current = resource;
+          if (current == null) {
+            current = factory.get();
+            resource = current;
+          }
+        }
+      }
+      return current;
+    }
+  }
+}
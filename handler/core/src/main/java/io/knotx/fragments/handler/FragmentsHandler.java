@@ -25,9 +25,11 @@ import io.knotx.fragments.engine.FragmentEvent.Status;
 import io.knotx.fragments.engine.FragmentEventContext;
 import io.knotx.fragments.engine.FragmentEventContextTaskAware;
 import io.knotx.fragments.engine.FragmentsEngine;
+import io.knotx.fragments.engine.FragmentsEngineOptions;
 import io.knotx.fragments.engine.Task;
 import io.knotx.fragments.handler.action.ActionProvider;
 import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.options.FragmentsHandlerOptions;
 import io.knotx.fragments.task.TaskFactory;
 import io.knotx.server.api.context.ClientRequest;
@@ -46,20 +48,28 @@ import java.util.ServiceLoader;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.math.NumberUtils;
 
 public class FragmentsHandler implements Handler<RoutingContext> {
 
   private final FragmentsEngine engine;
   private final RequestContextEngine requestContextEngine;
   private final TaskFactory taskFactory;
+  private final long requestTimeout;
+  private final String requestTimeoutHeader;
 
   FragmentsHandler(Vertx vertx, JsonObject config) {
     FragmentsHandlerOptions options = new FragmentsHandlerOptions(config);
+    requestTimeout = options.getRequestTimeout();
+    requestTimeoutHeader = options.getRequestTimeoutHeader();
 
     ActionProvider proxyProvider = new ActionProvider(options.getActions(),
         supplyFactories(), vertx.getDelegate());
     taskFactory = new TaskFactory(options.getTaskKey(), options.getTasks(), proxyProvider);
-    engine = new FragmentsEngine(vertx);
+    engine = new FragmentsEngine(vertx, new FragmentsEngineOptions()
+        .setVirtualThreads(options.isVirtualThreads())
+        .setMaxConcurrentFragmentsPerRequest(options.getMaxConcurrentFragmentsPerRequest())
+        .setMaxConcurrentBlockingNodes(options.getMaxConcurrentBlockingNodes()));
     requestContextEngine = new DefaultRequestContextEngine(getClass().getSimpleName());
   }
 
@@ -69,8 +79,9 @@ public class FragmentsHandler implements Handler<RoutingContext> {
     final List<Fragment> fragments = routingContext.get("fragments");
 
     ClientRequest clientRequest = requestContext.getRequestEvent().getClientRequest();
+    long deadline = deadline(clientRequest);
 
-    engine.execute(toEvents(fragments, clientRequest))
+    engine.execute(toEvents(fragments, clientRequest, deadline))
         .doOnSuccess(events -> putFragments(routingContext, events))
         .map(events -> toHandlerResult(events, requestContext))
         .subscribe(
@@ -130,13 +141,24 @@ public class FragmentsHandler implements Handler<RoutingContext> {
         .collect(Collectors.toList());
   }
 
+  private long deadline(ClientRequest clientRequest) {
+    long budget = requestTimeout;
+    if (requestTimeoutHeader != null) {
+      long headerBudget = NumberUtils.toLong(clientRequest.getHeaders().get(requestTimeoutHeader));
+      if (headerBudget > 0) {
+        budget = budget > 0 ? Math.min(budget, headerBudget) : headerBudget;
+      }
+    }
+    return budget > 0 ? System.currentTimeMillis() + budget : FragmentContext.NO_DEADLINE;
+  }
+
   private List<FragmentEventContextTaskAware> toEvents(List<Fragment> fragments,
-      ClientRequest clientRequest) {
+      ClientRequest clientRequest, long deadline) {
     return fragments.stream()
         .map(
             fragment -> {
               FragmentEventContext fragmentEventContext = new FragmentEventContext(
-                  new FragmentEvent(fragment), clientRequest);
+                  new FragmentEvent(fragment), clientRequest, deadline);
               return taskFactory.newInstance(fragmentEventContext)
                   .map(
                       task -> new FragmentEventContextTaskAware(task, fragmentEventContext))
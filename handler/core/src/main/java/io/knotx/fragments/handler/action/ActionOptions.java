@@ -25,6 +25,7 @@ public class ActionOptions {
   private String factory;
   private JsonObject config;
   private String doAction;
+  private BulkheadOptions bulkhead;
 
   ActionOptions(String factory, JsonObject config) {
     this(factory, config, null);
@@ -92,6 +93,22 @@ public class ActionOptions {
     return this;
   }
 
+  public BulkheadOptions getBulkhead() {
+    return bulkhead;
+  }
+
+  /**
+   * Sets the bulkhead configuration. When set, the {@code Action} is invoked on its own named worker
+   * pool with a bounded queue. If not set ({@code null}), blocking actions share the Vert.x worker
+   * pool.
+   *
+   * @param bulkhead bulkhead configuration.
+   * @return reference to this, so the API can be used fluently
+   */
+  public ActionOptions setBulkhead(BulkheadOptions bulkhead) {
+    this.bulkhead = bulkhead;
+    return this;
+  }
 
   @Override
   public boolean equals(Object o) {
@@ -104,12 +121,13 @@ public class ActionOptions {
     ActionOptions that = (ActionOptions) o;
     return Objects.equals(factory, that.factory) &&
         Objects.equals(config, that.config) &&
-        Objects.equals(doAction, that.doAction);
+        Objects.equals(doAction, that.doAction) &&
+        Objects.equals(bulkhead, that.bulkhead);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(factory, config, doAction);
+    return Objects.hash(factory, config, doAction, bulkhead);
   }
 
   @Override
@@ -118,6 +136,7 @@ public class ActionOptions {
         "factory='" + factory + '\'' +
         ", config=" + config +
         ", doAction='" + doAction + '\'' +
+        ", bulkhead=" + bulkhead +
         '}';
   }
 }
@@ -18,13 +18,16 @@ package io.knotx.fragments.handler.action;
 import io.knotx.fragments.handler.api.Cacheable;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.NonBlocking;
 import io.vertx.core.Vertx;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.StringUtils;
 
@@ -69,12 +72,59 @@ public class ActionProvider {
 
     if (isCacheable(factory)) {
       return Optional.of(cache.computeIfAbsent(action,
-          a -> factory.create(a, config.getConfig(), vertx, operation)));
+          a -> create(factory, a, config, operation)));
     } else {
-      return Optional.of(factory.create(action, config.getConfig(), vertx, operation));
+      return Optional.of(create(factory, action, config, operation));
     }
   }
 
+  /**
+   * Checks if the action never blocks the calling thread. An action is non-blocking when its
+   * factory is marked with {@link NonBlocking} and its {@code doAction} (if defined) is non-blocking
+   * too. An action with a bulkhead is non-blocking, as it moves itself to the bulkhead pool.
+   *
+   * @param action action alias
+   * @return {@code true} if action can be invoked on the event loop
+   */
+  public boolean isNonBlocking(String action) {
+    return isNonBlocking(action, new HashSet<>());
+  }
+
+  private boolean isNonBlocking(String action, Set<String> visited) {
+    if (StringUtils.isBlank(action)) {
+      return false;
+    }
+    if (!visited.add(action)) {
+      LOGGER.warn("Action [{}] references itself via doAction.", action);
+      return false;
+    }
+    ActionOptions config = options.get(action);
+    if (config == null) {
+      return false;
+    }
+    if (config.getBulkhead() != null) {
+      return true;
+    }
+    ActionFactory factory = factories.get(config.getFactory());
+    if (factory == null || !factory.getClass().isAnnotationPresent(NonBlocking.class)) {
+      return false;
+    }
+    return Optional.ofNullable(config.getDoAction())
+        .map(doAction -> isNonBlocking(doAction, visited))
+        .orElse(true);
+  }
+
+  private Action create(ActionFactory factory, String alias, ActionOptions config,
+      Action operation) {
+    Action action = factory.create(alias, config.getConfig(), vertx, operation);
+    BulkheadOptions bulkheadOptions = config.getBulkhead();
+    if (bulkheadOptions == null) {
+      return action;
+    }
+    String name = StringUtils.defaultIfBlank(bulkheadOptions.getName(), alias);
+    return new BulkheadAction(BulkheadAction.bulkhead(vertx, name, bulkheadOptions), action);
+  }
+
   private boolean isCacheable(ActionFactory factory) {
     return factory.getClass().isAnnotationPresent(Cacheable.class);
   }
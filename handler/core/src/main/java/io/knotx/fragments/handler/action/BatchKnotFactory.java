@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.BatchKnot;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Batching knot action factory class. Invocations collected within one event loop tick (or the
+ * configured window) are sent to the {@link BatchKnot} address as a single event bus message and
+ * the replies are fanned back out to the waiting fragments. Only invocations of the same request are
+ * batched together, unless {@code acrossRequests} is enabled, which couples concurrent requests
+ * (a slow or failed batch delays or fails all of them). Each reply is handled on the context of the
+ * invocation. It does not support a {@code doAction}. It can be initialized with a configuration:
+ * <pre>
+ *   productTile {
+ *     name = knot-batch,
+ *     config {
+ *       address = knotx.knot.product.batch
+ *       window = 5
+ *       maxBatchSize = 100
+ *     }
+ *   }
+ * </pre>
+ */
+@Cacheable
+@NonBlocking
+public class BatchKnotFactory implements ActionFactory {
+
+  static final long DEFAULT_WINDOW = 0;
+  static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+  // the service proxy protocol of the BatchKnot#applyBatch method
+  private static final String ACTION_HEADER = "action";
+  private static final String APPLY_BATCH_METHOD = "applyBatch";
+  private static final String FRAGMENT_CONTEXTS_PARAM = "fragmentContexts";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchKnotFactory.class);
+
+  @Override
+  public String getName() {
+    return "knot-batch";
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (doAction != null) {
+      throw new IllegalArgumentException("Batch knot action does not support doAction");
+    }
+    String address = config.getString("address");
+    if (StringUtils.isBlank(address)) {
+      throw new IllegalArgumentException("Batch knot action requires address in configuration.");
+    }
+    DeliveryOptions deliveryOptions = new DeliveryOptions(
+        config.getJsonObject("deliveryOptions") == null ? new JsonObject()
+            : config.getJsonObject("deliveryOptions"));
+    Batcher batcher = new Batcher(vertx, address, deliveryOptions,
+        config.getLong("window", DEFAULT_WINDOW),
+        config.getInteger("maxBatchSize", DEFAULT_MAX_BATCH_SIZE),
+        config.getBoolean("acrossRequests", false));
+    return batcher::add;
+  }
+
+  /**
+   * Collects invocations into batches. A batch is sent when the window expires (or in the next
+   * event loop tick when there is no window) or when it reaches the max size, whichever comes
+   * first.
+   */
+  static class Batcher {
+
+    private static final Object ALL_REQUESTS = new Object();
+
+    private final Vertx vertx;
+    private final String address;
+    private final DeliveryOptions deliveryOptions;
+    private final BatchKnot knot;
+    private final long window;
+    private final int maxBatchSize;
+    private final boolean acrossRequests;
+    private final Map<Object, Batch> pending = new IdentityHashMap<>();
+
+    Batcher(Vertx vertx, String address, DeliveryOptions deliveryOptions, long window,
+        int maxBatchSize, boolean acrossRequests) {
+      this.vertx = vertx;
+      this.address = address;
+      this.deliveryOptions = deliveryOptions;
+      this.knot = BatchKnot.createProxyWithOptions(vertx, address, deliveryOptions);
+      this.window = window;
+      this.maxBatchSize = Math.max(1, maxBatchSize);
+      this.acrossRequests = acrossRequests;
+    }
+
+    void add(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      Object key = acrossRequests ? ALL_REQUESTS : fragmentContext.getClientRequest();
+      Batch batch;
+      boolean created = false;
+      boolean full = false;
+      synchronized (pending) {
+        batch = pending.get(key);
+        if (batch == null) {
+          batch = new Batch(vertx.getOrCreateContext());
+          pending.put(key, batch);
+          created = true;
+        }
+        batch.add(fragmentContext, resultHandler, Vertx.currentContext());
+        if (batch.size() >= maxBatchSize) {
+          pending.remove(key);
+          full = true;
+        }
+      }
+      if (full) {
+        send(batch);
+      } else if (created) {
+        Batch scheduled = batch;
+        if (window > 0) {
+          vertx.setTimer(window, id -> flush(key, scheduled));
+        } else {
+          scheduled.context.runOnContext(v -> flush(key, scheduled));
+        }
+      }
+    }
+
+    private void flush(Object key, Batch batch) {
+      synchronized (pending) {
+        if (pending.get(key) != batch) {
+          // the batch was sent when it reached the max size
+          return;
+        }
+        pending.remove(key);
+      }
+      send(batch);
+    }
+
+    private void send(Batch batch) {
+      batch.expire();
+      if (batch.size() == 0) {
+        return;
+      }
+      long remaining = batch.remainingTime();
+      LOGGER.trace("Batch of [{}] fragments is sent to [{}].", batch.size(), address);
+      if (remaining < deliveryOptions.getSendTimeout()) {
+        // the shortest request budget in the batch is shorter than the configured timeout
+        send(batch, remaining);
+      } else {
+        knot.applyBatch(batch.fragmentContexts(), batch::complete);
+      }
+    }
+
+    private void send(Batch batch, long remaining) {
+      DeliveryOptions budgetOptions = new DeliveryOptions(deliveryOptions)
+          .setSendTimeout(Math.max(1, remaining))
+          .addHeader(ACTION_HEADER, APPLY_BATCH_METHOD);
+      JsonObject message = new JsonObject().put(FRAGMENT_CONTEXTS_PARAM,
+          new JsonArray(batch.fragmentContexts().stream()
+              .map(FragmentContext::toJson)
+              .collect(Collectors.toList())));
+      vertx.eventBus().<JsonArray>request(address, message, budgetOptions, reply -> {
+        if (reply.succeeded()) {
+          batch.complete(Future.succeededFuture(results(reply.result().body())));
+        } else {
+          batch.complete(Future.failedFuture(reply.cause()));
+        }
+      });
+    }
+
+    private static List<FragmentResult> results(JsonArray body) {
+      List<FragmentResult> results = new ArrayList<>();
+      if (body != null) {
+        for (int i = 0; i < body.size(); i++) {
+          JsonObject result = body.getJsonObject(i);
+          results.add(result == null ? null : new FragmentResult(result));
+        }
+      }
+      return results;
+    }
+  }
+
+  private static class Batch {
+
+    private final Context context;
+    private final List<Invocation> invocations = new ArrayList<>();
+
+    Batch(Context context) {
+      this.context = context;
+    }
+
+    void add(FragmentContext fragmentContext, Handler<AsyncResult<FragmentResult>> handler,
+        Context handlerContext) {
+      invocations.add(new Invocation(fragmentContext, handler, handlerContext));
+    }
+
+    int size() {
+      return invocations.size();
+    }
+
+    List<FragmentContext> fragmentContexts() {
+      return invocations.stream()
+          .map(invocation -> invocation.fragmentContext)
+          .collect(Collectors.toList());
+    }
+
+    /**
+     * Fails invocations whose request deadline has already passed with a timeout and removes them
+     * from the batch, so they are not sent.
+     */
+    void expire() {
+      long now = System.currentTimeMillis();
+      invocations.removeIf(invocation -> {
+        FragmentContext fragmentContext = invocation.fragmentContext;
+        if (fragmentContext.hasDeadline() && fragmentContext.getDeadline() <= now) {
+          invocation.handle(Future.failedFuture(new ReplyException(ReplyFailure.TIMEOUT,
+              "Request deadline expired before the batch was sent")));
+          return true;
+        }
+        return false;
+      });
+    }
+
+    long remainingTime() {
+      long deadline = invocations.stream()
+          .map(invocation -> invocation.fragmentContext)
+          .filter(FragmentContext::hasDeadline)
+          .mapToLong(FragmentContext::getDeadline)
+          .min()
+          .orElse(FragmentContext.NO_DEADLINE);
+      return deadline == FragmentContext.NO_DEADLINE ? Long.MAX_VALUE
+          : deadline - System.currentTimeMillis();
+    }
+
+    void complete(AsyncResult<List<FragmentResult>> reply) {
+      if (reply.succeeded() && reply.result().size() != invocations.size()) {
+        reply = Future.failedFuture(new IllegalStateException(
+            "Batch reply contains [" + reply.result().size() + "] results, expected ["
+                + invocations.size() + "]"));
+      }
+      for (int i = 0; i < invocations.size(); i++) {
+        AsyncResult<FragmentResult> result = reply.succeeded()
+            ? Future.succeededFuture(reply.result().get(i))
+            : Future.failedFuture(reply.cause());
+        invocations.get(i).handle(result);
+      }
+    }
+  }
+
+  private static class Invocation {
+
+    private final FragmentContext fragmentContext;
+    private final Handler<AsyncResult<FragmentResult>> handler;
+    private final Context context;
+
+    Invocation(FragmentContext fragmentContext, Handler<AsyncResult<FragmentResult>> handler,
+        Context context) {
+      this.fragmentContext = fragmentContext;
+      this.handler = handler;
+      this.context = context;
+    }
+
+    /**
+     * Invocations can come from other event loops, results are handled on their own contexts.
+     */
+    void handle(AsyncResult<FragmentResult> result) {
+      if (context == null || Vertx.currentContext() == context) {
+        handler.handle(result);
+      } else {
+        context.runOnContext(v -> handler.handle(result));
+      }
+    }
+  }
+}
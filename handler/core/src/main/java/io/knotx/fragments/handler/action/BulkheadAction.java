@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invokes the {@code Action} on a named worker pool with a bounded number of in-flight
+ * invocations. Invocations exceeding the pool size plus the queue size are rejected with the
+ * configured transition without touching the worker pool. Results are delivered on the caller
+ * context.
+ */
+class BulkheadAction implements Action {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkheadAction.class);
+
+  private static final String BULKHEADS_MAP = "knotx.fragments.bulkheads";
+
+  private final Bulkhead bulkhead;
+  private final Action doAction;
+
+  BulkheadAction(Bulkhead bulkhead, Action doAction) {
+    this.bulkhead = bulkhead;
+    this.doAction = doAction;
+  }
+
+  /**
+   * Returns the bulkhead shared by name in the Vert.x instance, see {@link SharedRegistry}.
+   */
+  static Bulkhead bulkhead(Vertx vertx, String name, BulkheadOptions options) {
+    return SharedRegistry.getOrCreate(vertx, BULKHEADS_MAP, name, options,
+        () -> new Bulkhead(vertx.createSharedWorkerExecutor(name, options.getPoolSize()),
+            options.getPoolSize() + options.getMaxQueueSize(), options.getRejectionTransition()));
+  }
+
+  @Override
+  public void apply(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler) {
+    if (bulkhead.inFlight.incrementAndGet() > bulkhead.capacity) {
+      bulkhead.inFlight.decrementAndGet();
+      LOGGER.warn("Bulkhead is full, fragment [{}] is rejected with transition [{}].",
+          fragmentContext.getFragment().getId(), bulkhead.rejectionTransition);
+      Future.succeededFuture(
+          new FragmentResult(fragmentContext.getFragment(), bulkhead.rejectionTransition))
+          .setHandler(resultHandler);
+      return;
+    }
+    bulkhead.executor.<FragmentResult>executeBlocking(
+        f -> doAction.apply(fragmentContext, f),
+        false,
+        result -> {
+          bulkhead.inFlight.decrementAndGet();
+          resultHandler.handle(result);
+        });
+  }
+
+  static final class Bulkhead {
+
+    private final WorkerExecutor executor;
+    private final int capacity;
+    private final String rejectionTransition;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Bulkhead(WorkerExecutor executor, int capacity, String rejectionTransition) {
+      this.executor = executor;
+      this.capacity = capacity;
+      this.rejectionTransition = rejectionTransition;
+    }
+
+    int getInFlight() {
+      return inFlight.get();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import java.util.Objects;
+
+/**
+ * Bulkhead configuration of the {@code Action}. The action is invoked on a dedicated, named
+ * worker pool instead of the shared Vert.x worker pool, so a slow data source cannot starve other
+ * actions. Actions declaring the same bulkhead name share its pool and queue.
+ */
+@DataObject(generateConverter = true)
+public class BulkheadOptions {
+
+  public static final int DEFAULT_POOL_SIZE = 10;
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+  public static final String DEFAULT_REJECTION_TRANSITION = ERROR_TRANSITION;
+
+  private String name;
+  private int poolSize;
+  private int maxQueueSize;
+  private String rejectionTransition;
+
+  public BulkheadOptions() {
+    init();
+  }
+
+  public BulkheadOptions(JsonObject json) {
+    init();
+    BulkheadOptionsConverter.fromJson(json, this);
+  }
+
+  private void init() {
+    poolSize = DEFAULT_POOL_SIZE;
+    maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+    rejectionTransition = DEFAULT_REJECTION_TRANSITION;
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    BulkheadOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the bulkhead name. Actions with the same bulkhead name share the worker pool and its
+   * queue. If not set ({@code null}), the action alias is used.
+   *
+   * @param name bulkhead name
+   * @return reference to this, so the API can be used fluently
+   */
+  public BulkheadOptions setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  /**
+   * Sets the number of worker threads in the bulkhead pool. The default value is {@value
+   * DEFAULT_POOL_SIZE}.
+   *
+   * @param poolSize worker pool size
+   * @return reference to this, so the API can be used fluently
+   */
+  public BulkheadOptions setPoolSize(int poolSize) {
+    this.poolSize = poolSize;
+    return this;
+  }
+
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * Sets the maximum number of invocations waiting for a free worker thread. When both the pool and
+   * the queue are full, the invocation is rejected with the rejection transition. The default value
+   * is {@value DEFAULT_MAX_QUEUE_SIZE}.
+   *
+   * @param maxQueueSize maximum queue length
+   * @return reference to this, so the API can be used fluently
+   */
+  public BulkheadOptions setMaxQueueSize(int maxQueueSize) {
+    this.maxQueueSize = maxQueueSize;
+    return this;
+  }
+
+  public String getRejectionTransition() {
+    return rejectionTransition;
+  }
+
+  /**
+   * Sets the transition returned when the bulkhead is full. The default value is {@code _error}.
+   *
+   * @param rejectionTransition rejection transition
+   * @return reference to this, so the API can be used fluently
+   */
+  public BulkheadOptions setRejectionTransition(String rejectionTransition) {
+    this.rejectionTransition = rejectionTransition;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BulkheadOptions that = (BulkheadOptions) o;
+    return poolSize == that.poolSize &&
+        maxQueueSize == that.maxQueueSize &&
+        Objects.equals(name, that.name) &&
+        Objects.equals(rejectionTransition, that.rejectionTransition);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, poolSize, maxQueueSize, rejectionTransition);
+  }
+
+  @Override
+  public String toString() {
+    return "BulkheadOptions{" +
+        "name='" + name + '\'' +
+        ", poolSize=" + poolSize +
+        ", maxQueueSize=" + maxQueueSize +
+        ", rejectionTransition='" + rejectionTransition + '\'' +
+        '}';
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalCause;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the in-memory cache action. Counters are striped ({@link LongAdder}), so the hit
+ * path does not take locks. Metrics are registered in the Vert.x instance under the action alias,
+ * see {@link #get(Vertx, String)}.
+ */
+public class CacheMetrics {
+
+  private static final String METRICS_MAP = "knotx.fragments.cache.metrics";
+
+  private static final long[] LOAD_TIME_BUCKETS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500};
+
+  private final String alias;
+  // a region is added once per action using it
+  private final CopyOnWriteArrayList<Region> regions = new CopyOnWriteArrayList<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder staleHits = new LongAdder();
+  private final LongAdder staleOnErrors = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadTimeTotal = new LongAdder();
+  private final LongAdder[] loadTimes = new LongAdder[LOAD_TIME_BUCKETS.length + 1];
+  private SharedTimer publisher;
+
+  CacheMetrics(String alias) {
+    this.alias = alias;
+    for (int i = 0; i < loadTimes.length; i++) {
+      loadTimes[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Returns metrics of the in-memory cache action.
+   *
+   * @param vertx Vert.x instance
+   * @param alias action alias
+   * @return metrics or empty when the action is not created
+   */
+  public static Optional<CacheMetrics> get(Vertx vertx, String alias) {
+    return Optional.ofNullable(SharedRegistry.get(vertx, METRICS_MAP, alias));
+  }
+
+  /**
+   * Registers metrics in the Vert.x instance. Actions with the same alias (created by many handler
+   * instances) share counters, storage statistics are summed over their cache regions. Each
+   * registration must be released with {@link #release(Vertx)}, metrics are removed when the last
+   * action with the alias is released.
+   *
+   * @return registered metrics
+   */
+  CacheMetrics register(Vertx vertx) {
+    return SharedRegistry.acquire(vertx, METRICS_MAP, alias, null, () -> this);
+  }
+
+  /**
+   * Releases the registration of the action.
+   */
+  void release(Vertx vertx) {
+    SharedRegistry.release(vertx, METRICS_MAP, alias);
+  }
+
+  /**
+   * Returns the timer publishing metrics on the event bus. It is created by the first action
+   * configuring the address and lives as long as any action joining it.
+   *
+   * @return publish timer
+   */
+  synchronized SharedTimer publisher(Vertx vertx, String address, long interval) {
+    if (publisher == null) {
+      publisher = new SharedTimer(vertx, interval,
+          id -> vertx.eventBus().publish(address, toJson()));
+    }
+    return publisher;
+  }
+
+  /**
+   * Adds the cache region of the action to the storage statistics. A region shared by many actions
+   * is counted once.
+   *
+   * @param region cache region statistics
+   */
+  void addRegion(Region region) {
+    regions.add(region);
+  }
+
+  /**
+   * Removes the cache region of the action from the storage statistics. A region shared by many
+   * actions is counted until it is removed by all of them.
+   *
+   * @param region cache region statistics
+   */
+  void removeRegion(Region region) {
+    regions.remove(region);
+  }
+
+  void hit() {
+    hits.increment();
+  }
+
+  void staleHit() {
+    staleHits.increment();
+  }
+
+  void staleOnError() {
+    staleOnErrors.increment();
+  }
+
+  void miss() {
+    misses.increment();
+  }
+
+  void load(long loadTime, boolean success) {
+    (success ? loadSuccesses : loadFailures).increment();
+    loadTimeTotal.add(loadTime);
+    int bucket = 0;
+    while (bucket < LOAD_TIME_BUCKETS.length && loadTime > LOAD_TIME_BUCKETS[bucket]) {
+      bucket++;
+    }
+    loadTimes[bucket].increment();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getStaleHits() {
+    return staleHits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getLoads() {
+    return loadSuccesses.sum() + loadFailures.sum();
+  }
+
+  public long getEvictions(RemovalCause cause) {
+    return regions.stream().distinct()
+        .mapToLong(region -> region.evictions.get(cause).sum()).sum();
+  }
+
+  /**
+   * @return metrics snapshot; the load time histogram contains counts of loads not longer than
+   * the bucket bound (in milliseconds)
+   */
+  public JsonObject toJson() {
+    JsonArray histogram = new JsonArray();
+    for (int i = 0; i < loadTimes.length; i++) {
+      histogram.add(new JsonObject()
+          .put("le", i < LOAD_TIME_BUCKETS.length ? String.valueOf(LOAD_TIME_BUCKETS[i]) : "+Inf")
+          .put("count", loadTimes[i].sum()));
+    }
+    JsonObject evictions = new JsonObject();
+    for (RemovalCause cause : RemovalCause.values()) {
+      evictions.put(cause.name(), getEvictions(cause));
+    }
+    return new JsonObject()
+        .put("alias", alias)
+        .put("hits", hits.sum())
+        .put("staleHits", staleHits.sum())
+        .put("staleOnErrors", staleOnErrors.sum())
+        .put("misses", misses.sum())
+        .put("loadSuccesses", loadSuccesses.sum())
+        .put("loadFailures", loadFailures.sum())
+        .put("loadTimeTotal", loadTimeTotal.sum())
+        .put("loadTimes", histogram)
+        .put("evictions", evictions)
+        .put("size", regions.stream().distinct().mapToLong(Region::size).sum())
+        .put("weight", regions.stream().distinct()
+            .mapToLong(region -> region.weight.sum()).sum());
+  }
+
+  @Override
+  public String toString() {
+    return "CacheMetrics" + toJson().encode();
+  }
+
+  /**
+   * Statistics of the cache storage, shared by all actions using the same cache region.
+   */
+  static class Region {
+
+    private final Map<RemovalCause, LongAdder> evictions = new EnumMap<>(RemovalCause.class);
+    private final LongAdder weight = new LongAdder();
+    private Cache<?, ?> cache;
+
+    Region() {
+      for (RemovalCause cause : RemovalCause.values()) {
+        evictions.put(cause, new LongAdder());
+      }
+    }
+
+    void bind(Cache<?, ?> cache) {
+      this.cache = cache;
+    }
+
+    void added(long entryWeight) {
+      weight.add(entryWeight);
+    }
+
+    void removed(RemovalCause cause, long entryWeight) {
+      evictions.get(cause).increment();
+      weight.add(-entryWeight);
+    }
+
+    long size() {
+      return cache == null ? 0 : cache.size();
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache snapshot kept in a memory-mapped file. Loading the snapshot reads only the keys, values
+ * stay in the mapped region until they are taken. The file layout is:
+ * <pre>
+ *   magic (int), entries count (int),
+ *   [key length (int), key (UTF-8), write time (long), value length (int), value] * count
+ * </pre>
+ */
+class CacheSnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheSnapshot.class);
+
+  private static final int MAGIC = 0x4B4E5843;
+
+  private final Path path;
+  private final Map<String, Slot> index = new ConcurrentHashMap<>();
+  private ByteBuffer mapped;
+  private long maxAge;
+
+  CacheSnapshot(String path) {
+    this.path = Paths.get(path);
+  }
+
+  /**
+   * Maps the snapshot file and indexes entries not older than the max age.
+   *
+   * @param maxAge max age of entries in milliseconds
+   */
+  void load(long maxAge) {
+    this.maxAge = maxAge;
+    if (!Files.isRegularFile(path)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+        LOGGER.warn("Cache snapshot [{}] has unknown format, it is ignored.", path);
+        return;
+      }
+      long now = System.currentTimeMillis();
+      int count = buffer.getInt();
+      for (int i = 0; i < count; i++) {
+        byte[] key = new byte[buffer.getInt()];
+        buffer.get(key);
+        long writeTime = buffer.getLong();
+        int length = buffer.getInt();
+        if (now - writeTime <= maxAge) {
+          index.put(new String(key, StandardCharsets.UTF_8),
+              new Slot(buffer.position(), length, writeTime));
+        }
+        buffer.position(buffer.position() + length);
+      }
+      mapped = buffer;
+      LOGGER.info("Cache snapshot [{}] loaded with [{}] entries.", path, index.size());
+    } catch (IOException | RuntimeException e) {
+      index.clear();
+      LOGGER.warn("Could not load cache snapshot [{}].", e, path);
+    }
+  }
+
+  /**
+   * Removes the entry from the snapshot and returns it.
+   *
+   * @param key cache key
+   * @return snapshot entry or {@code null} when the snapshot does not contain the key
+   */
+  Entry take(String key) {
+    Slot slot = index.isEmpty() ? null : index.remove(key);
+    if (slot == null) {
+      return null;
+    }
+    return new Entry(key, read(slot), slot.writeTime);
+  }
+
+  /**
+   * Writes entries to a temporary mapped file and replaces the snapshot with it. Loaded entries
+   * that were never taken and are not older than the max age are written too, so they are not lost
+   * before the first lookup. When writing fails, the temporary file is removed. It blocks, so it
+   * must be called from a worker thread.
+   *
+   * @param cached entries to persist
+   */
+  void write(List<Entry> cached) throws IOException {
+    List<Entry> entries = withUntaken(cached);
+    long size = 2 * Integer.BYTES;
+    for (Entry entry : entries) {
+      size += 2 * Integer.BYTES + Long.BYTES + entry.key.length + entry.value.length;
+    }
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+        buffer.putInt(MAGIC).putInt(entries.size());
+        for (Entry entry : entries) {
+          buffer.putInt(entry.key.length).put(entry.key)
+              .putLong(entry.writeTime)
+              .putInt(entry.value.length).put(entry.value);
+        }
+        buffer.force();
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      // the snapshot is not replaced, the temporary file is not left behind
+      deleteTemp(temp, e);
+      throw e;
+    }
+  }
+
+  private static void deleteTemp(Path temp, Exception cause) {
+    try {
+      Files.deleteIfExists(temp);
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+    }
+  }
+
+  private List<Entry> withUntaken(List<Entry> cached) {
+    if (index.isEmpty()) {
+      return cached;
+    }
+    Set<String> keys = new HashSet<>();
+    cached.forEach(entry -> keys.add(entry.getKey()));
+    List<Entry> entries = new ArrayList<>(cached);
+    long now = System.currentTimeMillis();
+    index.forEach((key, slot) -> {
+      if (now - slot.writeTime <= maxAge && !keys.contains(key)) {
+        entries.add(new Entry(key, read(slot), slot.writeTime));
+      }
+    });
+    return entries;
+  }
+
+  private byte[] read(Slot slot) {
+    byte[] value = new byte[slot.length];
+    ByteBuffer buffer = mapped.duplicate();
+    buffer.position(slot.offset);
+    buffer.get(value);
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheSnapshot{" +
+        "path=" + path +
+        ", entries=" + index.size() +
+        '}';
+  }
+
+  private static class Slot {
+
+    private final int offset;
+    private final int length;
+    private final long writeTime;
+
+    Slot(int offset, int length, long writeTime) {
+      this.offset = offset;
+      this.length = length;
+      this.writeTime = writeTime;
+    }
+  }
+
+  static class Entry {
+
+    private final byte[] key;
+    private final byte[] value;
+    private final long writeTime;
+
+    Entry(String key, byte[] value, long writeTime) {
+      this.key = key.getBytes(StandardCharsets.UTF_8);
+      this.value = value;
+      this.writeTime = writeTime;
+    }
+
+    String getKey() {
+      return new String(key, StandardCharsets.UTF_8);
+    }
+
+    byte[] getValue() {
+      return value;
+    }
+
+    long getWriteTime() {
+      return writeTime;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting extra calls, such as retries or hedges. Each call deposits {@code ratio}
+ * of a token, each extra call takes one token, so extra calls never exceed the ratio of calls (plus
+ * the burst).
+ */
+class CallBudget {
+
+  private static final long TOKEN = 1000;
+
+  private final long deposit;
+  private final long capacity;
+  private final AtomicLong tokens;
+
+  CallBudget(double ratio, int burst) {
+    this.deposit = (long) (ratio * TOKEN);
+    this.capacity = Math.max(1, burst) * TOKEN;
+    this.tokens = new AtomicLong(deposit > 0 ? capacity : 0);
+  }
+
+  void deposit() {
+    tokens.getAndUpdate(current -> Math.min(capacity, current + deposit));
+  }
+
+  boolean withdraw() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+}
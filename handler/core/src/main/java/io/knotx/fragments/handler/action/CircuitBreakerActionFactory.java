@@ -19,26 +19,42 @@ import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
 import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
 import io.vertx.circuitbreaker.CircuitBreaker;
 import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import io.vertx.circuitbreaker.OpenCircuitException;
 import io.vertx.circuitbreaker.impl.CircuitBreakerImpl;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * This is a factory class creating action, which provides circuit breaker mechanism. It protects
  * the `doAction` action against overloading when it does not respond on time. If t
+ * <p>
+ * With the {@code slowCalls} configuration the circuit is also opened when the share of calls
+ * slower than the duration threshold exceeds the rate threshold, see {@link SlowCallGuard}.
  */
 @Cacheable
+@NonBlocking
 public class CircuitBreakerActionFactory implements ActionFactory {
 
   static final String FALLBACK_TRANSITION = "fallback";
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerActionFactory.class);
+
+  private static final String CIRCUIT_BREAKERS_MAP = "knotx.fragments.circuit-breakers";
+
   @Override
   public String getName() {
     return "cb";
@@ -49,32 +65,83 @@ public class CircuitBreakerActionFactory implements ActionFactory {
     if (doAction == null) {
       throw new DoActionNotDefinedException("Circuit Breaker action requires `doAction` defined");
     }
-    String circuitBreakerName = config.getString("circuitBreakerName");
-    CircuitBreakerOptions circuitBreakerOptions =
-        config.getJsonObject("circuitBreakerOptions") == null ? new CircuitBreakerOptions()
-            : new CircuitBreakerOptions(config.getJsonObject("circuitBreakerOptions"));
-    CircuitBreaker circuitBreaker = new CircuitBreakerImpl(circuitBreakerName, vertx,
-        circuitBreakerOptions);
-
-    return new CircuitBreakerAction(circuitBreaker, doAction);
+    String circuitBreakerName = StringUtils
+        .defaultIfBlank(config.getString("circuitBreakerName"), alias);
+    SharedCircuitBreaker breaker = sharedCircuitBreaker(vertx, circuitBreakerName,
+        config.getJsonObject("circuitBreakerOptions"), config.getJsonObject("slowCalls"));
+
+    return new CircuitBreakerAction(breaker.circuitBreaker, breaker.slowCallGuard, doAction);
+  }
+
+  /**
+   * Returns the circuit breaker shared by name in the Vert.x instance (see {@link
+   * SharedRegistry}). So all handler instances share the breaker state and a failing backend is
+   * cut off after {@code maxFailures}, not after {@code maxFailures} per instance. State changes
+   * are published on the breaker notification address.
+   */
+  private static SharedCircuitBreaker sharedCircuitBreaker(Vertx vertx, String name,
+      JsonObject options, JsonObject slowCalls) {
+    JsonObject configuration = new JsonObject()
+        .put("circuitBreakerOptions", options)
+        .put("slowCalls", slowCalls);
+    return SharedRegistry.getOrCreate(vertx, CIRCUIT_BREAKERS_MAP, name, configuration, () -> {
+      CircuitBreakerOptions circuitBreakerOptions =
+          options == null ? new CircuitBreakerOptions() : new CircuitBreakerOptions(options);
+      CircuitBreaker circuitBreaker = new CircuitBreakerImpl(name, vertx, circuitBreakerOptions)
+          .openHandler(v -> LOGGER.warn("Circuit breaker [{}] is open.", name))
+          .halfOpenHandler(v -> LOGGER.info("Circuit breaker [{}] is half-open.", name))
+          .closeHandler(v -> LOGGER.info("Circuit breaker [{}] is closed.", name));
+      return new SharedCircuitBreaker(circuitBreaker,
+          SlowCallGuard.create(slowCalls, circuitBreakerOptions.getResetTimeout()));
+    });
+  }
+
+  private static final class SharedCircuitBreaker {
+
+    private final CircuitBreaker circuitBreaker;
+    private final SlowCallGuard slowCallGuard;
+
+    private SharedCircuitBreaker(CircuitBreaker circuitBreaker, SlowCallGuard slowCallGuard) {
+      this.circuitBreaker = circuitBreaker;
+      this.slowCallGuard = slowCallGuard;
+    }
   }
 
   public static class CircuitBreakerAction implements Action {
 
     private CircuitBreaker circuitBreaker;
+    private SlowCallGuard slowCallGuard;
     private Action doAction;
 
     CircuitBreakerAction(CircuitBreaker circuitBreaker, Action doAction) {
+      this(circuitBreaker, null, doAction);
+    }
+
+    CircuitBreakerAction(CircuitBreaker circuitBreaker, SlowCallGuard slowCallGuard,
+        Action doAction) {
       this.circuitBreaker = circuitBreaker;
+      this.slowCallGuard = slowCallGuard;
       this.doAction = doAction;
     }
 
     @Override
     public void apply(FragmentContext fragmentContext,
         Handler<AsyncResult<FragmentResult>> resultHandler) {
+      SlowCallGuard.Permit permit =
+          slowCallGuard == null ? SlowCallGuard.Permit.CALL : slowCallGuard.acquire();
+      if (permit == SlowCallGuard.Permit.REJECTED) {
+        resultHandler.handle(Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(), FALLBACK_TRANSITION)));
+        return;
+      }
+      long start = System.currentTimeMillis();
+      AtomicBoolean recorded = new AtomicBoolean();
       circuitBreaker.executeWithFallback(
           f -> doAction.apply(fragmentContext,
               result -> {
+                if (slowCallGuard != null && recorded.compareAndSet(false, true)) {
+                  slowCallGuard.record(permit, System.currentTimeMillis() - start);
+                }
                 if (result.succeeded()) {
                   f.complete(result.result());
                 } else {
@@ -82,6 +149,14 @@ public class CircuitBreakerActionFactory implements ActionFactory {
                 }
               }),
           v -> {
+            if (slowCallGuard != null && recorded.compareAndSet(false, true)) {
+              // a call rejected by the open circuit did not reach the backend
+              if (v instanceof OpenCircuitException) {
+                slowCallGuard.release(permit);
+              } else {
+                slowCallGuard.record(permit, System.currentTimeMillis() - start);
+              }
+            }
             Fragment fragment = fragmentContext.getFragment();
             return new FragmentResult(fragment, FALLBACK_TRANSITION);
           }
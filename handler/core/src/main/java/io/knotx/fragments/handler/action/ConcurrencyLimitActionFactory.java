@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Adaptive concurrency limit action factory class. It limits in-flight invocations of the
+ * `doAction` with a limit adjusted by the observed round-trip times (AIMD). The limit grows by one
+ * while calls are fast and it is used at least in half, and it is multiplied by the backoff ratio
+ * when a call fails or is slower than the tolerance times the no-load round-trip time. Calls
+ * exceeding the limit are not invoked and get the overload transition immediately. Limits are
+ * shared by name across handler instances. It can be initialized with a configuration:
+ * <pre>
+ *   productLimit {
+ *     name = concurrency-limit,
+ *     config {
+ *       initialLimit = 20
+ *       minLimit = 1
+ *       maxLimit = 200
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@NonBlocking
+public class ConcurrencyLimitActionFactory implements ActionFactory {
+
+  static final String OVERLOAD_TRANSITION = "_overload";
+
+  static final int DEFAULT_INITIAL_LIMIT = 20;
+  static final int DEFAULT_MIN_LIMIT = 1;
+  static final int DEFAULT_MAX_LIMIT = 1000;
+  static final double DEFAULT_BACKOFF_RATIO = 0.9;
+  static final double DEFAULT_TOLERANCE = 2.0;
+  static final int DEFAULT_WINDOW_SIZE = 100;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimitActionFactory.class);
+
+  private static final String LIMITS_MAP = "knotx.fragments.concurrency-limits";
+
+  @Override
+  public String getName() {
+    return "concurrency-limit";
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (doAction == null) {
+      throw new DoActionNotDefinedException(
+          "Concurrency limit action requires `doAction` defined");
+    }
+    String name = StringUtils.defaultIfBlank(config.getString("name"), alias);
+    return new ConcurrencyLimitAction(limit(vertx, name, config), doAction,
+        config.getString("overloadTransition", OVERLOAD_TRANSITION));
+  }
+
+  /**
+   * Returns the limit shared by name in the Vert.x instance, see {@link SharedRegistry}.
+   */
+  static AdaptiveLimit limit(Vertx vertx, String name, JsonObject config) {
+    JsonObject limitConfig = new JsonObject()
+        .put("initialLimit", config.getInteger("initialLimit", DEFAULT_INITIAL_LIMIT))
+        .put("minLimit", config.getInteger("minLimit", DEFAULT_MIN_LIMIT))
+        .put("maxLimit", config.getInteger("maxLimit", DEFAULT_MAX_LIMIT))
+        .put("backoffRatio", config.getDouble("backoffRatio", DEFAULT_BACKOFF_RATIO))
+        .put("tolerance", config.getDouble("tolerance", DEFAULT_TOLERANCE))
+        .put("windowSize", config.getInteger("windowSize", DEFAULT_WINDOW_SIZE));
+    return SharedRegistry.getOrCreate(vertx, LIMITS_MAP, name, limitConfig,
+        () -> new AdaptiveLimit(
+            limitConfig.getInteger("initialLimit"),
+            limitConfig.getInteger("minLimit"),
+            limitConfig.getInteger("maxLimit"),
+            limitConfig.getDouble("backoffRatio"),
+            limitConfig.getDouble("tolerance"),
+            limitConfig.getInteger("windowSize")));
+  }
+
+  public static class ConcurrencyLimitAction implements Action {
+
+    private final AdaptiveLimit limit;
+    private final Action doAction;
+    private final String overloadTransition;
+
+    ConcurrencyLimitAction(AdaptiveLimit limit, Action doAction, String overloadTransition) {
+      this.limit = limit;
+      this.doAction = doAction;
+      this.overloadTransition = overloadTransition;
+    }
+
+    @Override
+    public void apply(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      if (!limit.acquire()) {
+        LOGGER.debug("Concurrency limit [{}] reached, fragment [{}] gets transition [{}].",
+            limit.getLimit(), fragmentContext.getFragment().getId(), overloadTransition);
+        Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(), overloadTransition))
+            .setHandler(resultHandler);
+        return;
+      }
+      long start = System.nanoTime();
+      doAction.apply(fragmentContext, result -> {
+        limit.release(System.nanoTime() - start, result.succeeded());
+        resultHandler.handle(result);
+      });
+    }
+  }
+
+  /**
+   * Additive increase / multiplicative decrease limit. The no-load round-trip time is the minimum
+   * observed in the previous window of samples, so it follows the backend when its latency changes
+   * permanently.
+   */
+  static final class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final int windowSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long noLoadRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int samples;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+        double tolerance, int windowSize) {
+      this.minLimit = Math.max(1, minLimit);
+      this.maxLimit = Math.max(this.minLimit, maxLimit);
+      this.backoffRatio = backoffRatio;
+      this.tolerance = tolerance;
+      this.windowSize = Math.max(1, windowSize);
+      this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+      this.limit = (int) estimatedLimit;
+    }
+
+    boolean acquire() {
+      int current;
+      do {
+        current = inFlight.get();
+        if (current >= limit) {
+          return false;
+        }
+      } while (!inFlight.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    void release(long rttNanos, boolean succeeded) {
+      int used = inFlight.getAndDecrement();
+      synchronized (this) {
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        if (++samples >= windowSize) {
+          noLoadRtt = windowMinRtt;
+          windowMinRtt = Long.MAX_VALUE;
+          samples = 0;
+        }
+        long baseline = Math.min(noLoadRtt, windowMinRtt);
+        if (!succeeded || rttNanos > tolerance * baseline) {
+          estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        } else if (used * 2 >= limit) {
+          estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+        }
+        limit = (int) estimatedLimit;
+      }
+    }
+
+    int getLimit() {
+      return limit;
+    }
+
+    int getInFlight() {
+      return inFlight.get();
+    }
+
+    @Override
+    public String toString() {
+      return "AdaptiveLimit{" +
+          "limit=" + limit +
+          ", inFlight=" + inFlight.get() +
+          ", noLoadRtt=" + (noLoadRtt == Long.MAX_VALUE ? -1
+          : TimeUnit.NANOSECONDS.toMillis(noLoadRtt)) + "ms" +
+          '}';
+    }
+  }
+}
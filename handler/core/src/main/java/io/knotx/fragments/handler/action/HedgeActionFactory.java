@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedged requests action factory class. When the `doAction` does not reply within the hedge
+ * delay, the same invocation is sent once again and the first successful reply wins. The delay is
+ * either fixed or equal to the observed latency percentile. Hedges are limited by the budget, so
+ * they never add more than the configured ratio of extra load. It can be initialized with a
+ * configuration:
+ * <pre>
+ *   productHedge {
+ *     name = hedge,
+ *     config {
+ *       delay = 100
+ *       percentile = 95
+ *       budget = 0.1
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@NonBlocking
+public class HedgeActionFactory implements ActionFactory {
+
+  static final long DEFAULT_DELAY = 100;
+  static final int DEFAULT_WINDOW_SIZE = 100;
+  static final double DEFAULT_BUDGET = 0.1;
+  static final int DEFAULT_BURST = 10;
+
+  @Override
+  public String getName() {
+    return "hedge";
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (doAction == null) {
+      throw new DoActionNotDefinedException("Hedge action requires `doAction` defined");
+    }
+    LatencyWindow latencies = new LatencyWindow(
+        config.getLong("delay", DEFAULT_DELAY),
+        config.getDouble("percentile", 0.0),
+        config.getInteger("windowSize", DEFAULT_WINDOW_SIZE));
+    CallBudget budget = new CallBudget(
+        config.getDouble("budget", DEFAULT_BUDGET),
+        config.getInteger("burst", DEFAULT_BURST));
+    return new HedgeAction(vertx, doAction, latencies, budget);
+  }
+
+  public static class HedgeAction implements Action {
+
+    private final Vertx vertx;
+    private final Action doAction;
+    private final LatencyWindow latencies;
+    private final CallBudget budget;
+
+    HedgeAction(Vertx vertx, Action doAction, LatencyWindow latencies, CallBudget budget) {
+      this.vertx = vertx;
+      this.doAction = doAction;
+      this.latencies = latencies;
+      this.budget = budget;
+    }
+
+    @Override
+    public void apply(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      budget.deposit();
+      HedgedCall call = new HedgedCall(resultHandler);
+      long start = System.currentTimeMillis();
+      long timerId = vertx.setTimer(latencies.delay(), id -> {
+        if (!call.isDone() && budget.withdraw()) {
+          call.hedged();
+          doAction.apply(copy(fragmentContext), call::complete);
+        }
+      });
+      doAction.apply(fragmentContext, result -> {
+        vertx.cancelTimer(timerId);
+        if (result.succeeded()) {
+          latencies.record(System.currentTimeMillis() - start);
+        }
+        call.complete(result);
+      });
+    }
+
+    /**
+     * The hedge gets its own fragment, so the invocation that loses cannot modify the fragment
+     * returned by the winner.
+     */
+    private FragmentContext copy(FragmentContext fragmentContext) {
+      Fragment fragment = new Fragment(fragmentContext.getFragment().toJson().copy());
+      return new FragmentContext(fragment, fragmentContext.getClientRequest(),
+          fragmentContext.getDeadline());
+    }
+  }
+
+  /**
+   * Tracks replies of a single invocation. The first successful reply is passed to the handler,
+   * the others are ignored. A failure is passed only when no other reply is expected.
+   */
+  private static class HedgedCall {
+
+    private final Handler<AsyncResult<FragmentResult>> resultHandler;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    HedgedCall(Handler<AsyncResult<FragmentResult>> resultHandler) {
+      this.resultHandler = resultHandler;
+    }
+
+    boolean isDone() {
+      return done.get();
+    }
+
+    void hedged() {
+      pending.incrementAndGet();
+    }
+
+    void complete(AsyncResult<FragmentResult> result) {
+      boolean last = pending.decrementAndGet() == 0;
+      if ((result.succeeded() || last) && done.compareAndSet(false, true)) {
+        resultHandler.handle(result);
+      }
+    }
+  }
+
+  /**
+   * Window of the recent latencies. The percentile is recalculated each time the window is filled,
+   * until then the fixed delay is used.
+   */
+  static class LatencyWindow {
+
+    private final long fixedDelay;
+    private final double percentile;
+    private final long[] samples;
+    private int index;
+    private volatile long delay;
+
+    LatencyWindow(long fixedDelay, double percentile, int windowSize) {
+      this.fixedDelay = fixedDelay;
+      this.percentile = percentile;
+      this.samples = new long[Math.max(1, windowSize)];
+      this.delay = fixedDelay;
+    }
+
+    long delay() {
+      return Math.max(1, delay);
+    }
+
+    void record(long latency) {
+      if (percentile <= 0) {
+        return;
+      }
+      synchronized (samples) {
+        samples[index++] = latency;
+        if (index == samples.length) {
+          long[] sorted = Arrays.copyOf(samples, samples.length);
+          Arrays.sort(sorted);
+          int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+          delay = sorted[Math.min(sorted.length - 1, Math.max(0, rank))];
+          index = 0;
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "LatencyWindow{" +
+          "fixedDelay=" + fixedDelay +
+          ", percentile=" + percentile +
+          ", delay=" + delay +
+          '}';
+    }
+  }
+}
@@ -16,27 +16,38 @@
 package io.knotx.fragments.handler.action;
 
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
-import io.knotx.server.api.context.ClientRequest;
-import io.knotx.server.common.placeholders.PlaceholdersResolver;
-import io.knotx.server.common.placeholders.SourceDefinitions;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.knotx.fragments.handler.placeholders.ClientRequestTemplate;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
 
 /**
  * Payload Cache Action factory class. It can be initialized with a configuration:
@@ -45,20 +56,41 @@ import io.vertx.core.json.JsonObject;
  *     name = in-memory-cache,
  *     config {
  *       cache {
+ *         name = products
  *         maximumSize = 1000
  *         ttl = 5000
+ *         staleWhileRevalidate = 10000
+ *         staleIfError = 60000
+ *         storage = serialized
+ *         maximumWeight = 10000000
+ *         snapshot {
+ *           path = /var/cache/knotx/products.snapshot
+ *           interval = 60000
+ *         }
  *       }
  *       cacheKey = product-{param.id}
  *       payloadKey = product
+ *       maxWaiters = 1000
+ *       metrics {
+ *         address = knotx.fragments.cache.metrics
+ *         interval = 10000
+ *       }
  *     }
  *   }
  * </pre>
  */
 @Cacheable
+@NonBlocking
 public class InMemoryCacheActionFactory implements ActionFactory {
 
   private static final long DEFAULT_MAXIMUM_SIZE = 1000;
   private static final long DEFAULT_TTL = 5000;
+  private static final int DEFAULT_MAX_WAITERS = 1000;
+  private static final String CACHE_REGIONS_MAP = "knotx.fragments.caches";
+  private static final long DEFAULT_SNAPSHOT_INTERVAL = 60000;
+  private static final long DEFAULT_METRICS_INTERVAL = 10000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryCacheActionFactory.class);
 
 
   @Override
@@ -70,29 +102,106 @@ public class InMemoryCacheActionFactory implements ActionFactory {
   public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
 
     return new Action() {
-      private Cache<String, Object> cache = createCache(config);
+      private CacheOptions cacheOptions = new CacheOptions(config.getJsonObject("cache"));
+      private CacheRegion region = cacheRegion(vertx, cacheOptions);
       private String payloadKey = getPayloadKey(config);
+      private ClientRequestTemplate cacheKeyTemplate = getCacheKeyTemplate(config);
+      private int maxWaiters = config.getInteger("maxWaiters", DEFAULT_MAX_WAITERS);
+      private Map<String, InFlight> inFlight = region.inFlight;
+      private CacheMetrics metrics = cacheMetrics(vertx, alias, config, region);
 
       @Override
       public void apply(FragmentContext fragmentContext,
           Handler<AsyncResult<FragmentResult>> resultHandler) {
 
-        String cacheKey = getCacheKey(config, fragmentContext.getClientRequest());
-        Object cachedValue = cache.getIfPresent(cacheKey);
-        if (cachedValue == null) {
-          callDoActionAndCache(fragmentContext, resultHandler, cacheKey);
+        String cacheKey = cacheKeyTemplate.render(fragmentContext.getClientRequest());
+        CacheEntry cachedEntry = region.get(cacheKey);
+        long age = cachedEntry == null ? Long.MAX_VALUE : cachedEntry.age();
+        if (age <= cacheOptions.ttl) {
+          metrics.hit();
+          succeeded(fragmentContext, cachedEntry, resultHandler);
+        } else if (age <= cacheOptions.ttl + cacheOptions.staleWhileRevalidate) {
+          // stale value is served immediately, single refresh runs in the background
+          metrics.staleHit();
+          revalidate(fragmentContext, cacheKey);
+          succeeded(fragmentContext, cachedEntry, resultHandler);
         } else {
-          Fragment fragment = fragmentContext.getFragment();
-          fragment.appendPayload(payloadKey, cachedValue);
-          FragmentResult result = new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION);
-          Future.succeededFuture(result)
-              .setHandler(resultHandler);
+          metrics.miss();
+          callDoActionOrWait(fragmentContext, resultHandler, cacheKey, cachedEntry);
+        }
+      }
+
+      private void revalidate(FragmentContext fragmentContext, String cacheKey) {
+        InFlight refresh = new InFlight(payloadKey, maxWaiters);
+        if (inFlight.putIfAbsent(cacheKey, refresh) == null) {
+          Fragment copy = new Fragment(fragmentContext.getFragment().toJson().copy());
+          callDoActionAndCache(
+              new FragmentContext(copy, fragmentContext.getClientRequest(),
+                  fragmentContext.getDeadline()),
+              asyncResult -> {
+                inFlight.remove(cacheKey, refresh);
+                refresh.complete(asyncResult);
+              }, cacheKey);
+        }
+      }
+
+      /**
+       * Concurrent misses of the same key are coalesced, only the first one calls the doAction,
+       * the others wait for its result. When the waiters limit is reached, the doAction is called
+       * without coalescing.
+       */
+      private void callDoActionOrWait(FragmentContext fragmentContext,
+          Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey,
+          CacheEntry staleEntry) {
+        Handler<AsyncResult<FragmentResult>> handler =
+            staleIfError(fragmentContext, resultHandler, staleEntry);
+        InFlight leader = new InFlight(payloadKey, maxWaiters);
+        InFlight current = inFlight.putIfAbsent(cacheKey, leader);
+        if (current == null) {
+          callDoActionAndCache(fragmentContext, asyncResult -> {
+            inFlight.remove(cacheKey, leader);
+            leader.complete(asyncResult);
+            resultHandler.handle(asyncResult);
+          }, cacheKey, staleEntry);
+        } else if (!current.await(fragmentContext, payloadKey, handler)) {
+          callDoActionAndCache(fragmentContext, handler, cacheKey);
         }
       }
 
+      /**
+       * When the doAction fails or ends with other than the success transition (e.g. the circuit
+       * breaker fallback), the last good value is served, if it is not older than the stale-if-error
+       * window.
+       */
+      private Handler<AsyncResult<FragmentResult>> staleIfError(FragmentContext fragmentContext,
+          Handler<AsyncResult<FragmentResult>> resultHandler, CacheEntry staleEntry) {
+        if (staleEntry == null) {
+          return resultHandler;
+        }
+        return asyncResult -> {
+          boolean success = asyncResult.succeeded()
+              && FragmentResult.SUCCESS_TRANSITION.equals(asyncResult.result().getTransition());
+          if (!success && staleEntry.age() <= cacheOptions.ttl + cacheOptions.staleIfError) {
+            metrics.staleOnError();
+            succeeded(fragmentContext, staleEntry, resultHandler);
+          } else {
+            resultHandler.handle(asyncResult);
+          }
+        };
+      }
+
+      private void callDoActionAndCache(FragmentContext fragmentContext,
+          Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey,
+          CacheEntry staleEntry) {
+        callDoActionAndCache(fragmentContext,
+            staleIfError(fragmentContext, resultHandler, staleEntry), cacheKey);
+      }
+
       private void callDoActionAndCache(FragmentContext fragmentContext,
           Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey) {
+        long start = System.currentTimeMillis();
         doAction.apply(fragmentContext, asyncResult -> {
+          metrics.load(System.currentTimeMillis() - start, asyncResult.succeeded());
           if (asyncResult.succeeded()) {
             FragmentResult fragmentResult = asyncResult.result();
             if (FragmentResult.SUCCESS_TRANSITION.equals(fragmentResult.getTransition())
@@ -101,8 +210,8 @@ public class InMemoryCacheActionFactory implements ActionFactory {
                 .containsKey(payloadKey)) {
               JsonObject resultPayload = fragmentResult.getFragment()
                   .getPayload();
-              cache.put(cacheKey, resultPayload.getMap()
-                  .get(payloadKey));
+              region.put(cacheKey, cacheOptions.storage.entry(resultPayload.getMap()
+                  .get(payloadKey)));
             }
             Future.succeededFuture(fragmentResult)
                 .setHandler(resultHandler);
@@ -111,6 +220,15 @@ public class InMemoryCacheActionFactory implements ActionFactory {
           }
         });
       }
+
+      private void succeeded(FragmentContext fragmentContext, CacheEntry cachedEntry,
+          Handler<AsyncResult<FragmentResult>> resultHandler) {
+        Fragment fragment = fragmentContext.getFragment();
+        fragment.appendPayload(payloadKey, cachedEntry.value());
+        FragmentResult result = new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION);
+        Future.succeededFuture(result)
+            .setHandler(resultHandler);
+      }
     };
   }
 
@@ -123,28 +241,389 @@ public class InMemoryCacheActionFactory implements ActionFactory {
     return result;
   }
 
-  private String getCacheKey(JsonObject config, ClientRequest clientRequest) {
+  private CacheMetrics cacheMetrics(Vertx vertx, String alias, JsonObject config,
+      CacheRegion region) {
+    CacheMetrics created = new CacheMetrics(alias);
+    if (vertx == null) {
+      created.addRegion(region.stats);
+      return created;
+    }
+    CacheMetrics metrics = created.register(vertx);
+    metrics.addRegion(region.stats);
+    JsonObject metricsOptions = config.getJsonObject("metrics", new JsonObject());
+    String address = metricsOptions.getString("address");
+    SharedTimer publisher = StringUtils.isBlank(address) ? null : metrics.publisher(vertx, address,
+        metricsOptions.getLong("interval", DEFAULT_METRICS_INTERVAL));
+    Context context = vertx.getOrCreateContext();
+    if (publisher != null) {
+      publisher.join(context);
+    }
+    onClose(vertx, () -> {
+      if (publisher != null) {
+        publisher.leave(context);
+      }
+      metrics.removeRegion(region.stats);
+      metrics.release(vertx);
+    });
+    return metrics;
+  }
+
+  private ClientRequestTemplate getCacheKeyTemplate(JsonObject config) {
     String key = config.getString("cacheKey");
     if (StringUtils.isBlank(key)) {
       throw new IllegalArgumentException("Action requires cacheKey value in configuration.");
     }
-    return PlaceholdersResolver.resolve(key, buildSourceDefinitions(clientRequest));
+    return ClientRequestTemplate.compile(key);
+  }
+
+  /**
+   * Returns the cache region for the action. Named regions are shared by all actions (and handler
+   * instances) using the same name, see {@link SharedRegistry}. The region snapshot is written as
+   * long as any verticle using the region is deployed.
+   */
+  private CacheRegion cacheRegion(Vertx vertx, CacheOptions options) {
+    if (StringUtils.isBlank(options.name)) {
+      if (StringUtils.isNotBlank(options.snapshotPath)) {
+        // unnamed regions of many actions would overwrite the same snapshot file
+        throw new IllegalArgumentException(
+            "Action requires cache name value in configuration when snapshot is configured.");
+      }
+      return createRegion(vertx, options);
+    }
+    CacheRegion region = SharedRegistry.acquire(vertx, CACHE_REGIONS_MAP, options.name,
+        options.json, () -> createRegion(vertx, options));
+    Context context = vertx.getOrCreateContext();
+    region.join(context);
+    onClose(vertx, () -> {
+      region.leave(context);
+      SharedRegistry.release(vertx, CACHE_REGIONS_MAP, options.name, CacheRegion::close);
+    });
+    return region;
+  }
+
+  private CacheRegion createRegion(Vertx vertx, CacheOptions options) {
+    CacheSnapshot snapshot = null;
+    if (StringUtils.isNotBlank(options.snapshotPath)) {
+      snapshot = new CacheSnapshot(options.snapshotPath);
+      snapshot.load(options.maxAge());
+    }
+    CacheMetrics.Region stats = new CacheMetrics.Region();
+    CacheRegion region = new CacheRegion(createCache(options, stats), options.storage, snapshot,
+        stats);
+    region.schedulePersist(vertx, options.snapshotInterval);
+    return region;
+  }
+
+  /**
+   * Runs the action when the verticle creating the action is undeployed.
+   */
+  private static void onClose(Vertx vertx, Runnable action) {
+    vertx.getOrCreateContext().addCloseHook(completion -> {
+      action.run();
+      completion.handle(Future.succeededFuture());
+    });
+  }
+
+  private Cache<String, CacheEntry> createCache(CacheOptions options,
+      CacheMetrics.Region stats) {
+    // entries are kept as long as they can be served stale
+    CacheBuilder<String, CacheEntry> builder = CacheBuilder.newBuilder()
+        .expireAfterWrite(options.maxAge(), TimeUnit.MILLISECONDS)
+        .removalListener((RemovalListener<String, CacheEntry>) notification -> stats
+            .removed(notification.getCause(),
+                notification.getValue() == null ? 0 : notification.getValue().weight()));
+    if (options.concurrencyLevel > 0) {
+      builder.concurrencyLevel(options.concurrencyLevel);
+    }
+    if (options.maximumWeight > 0) {
+      builder = builder
+          .maximumWeight(options.maximumWeight)
+          .weigher((key, entry) -> entry.weight());
+    } else {
+      builder.maximumSize(options.maximumSize);
+    }
+    Cache<String, CacheEntry> cache = builder.build();
+    stats.bind(cache);
+    return cache;
+  }
+
+  private static final class CacheRegion {
+
+    private final Cache<String, CacheEntry> cache;
+    private final Storage storage;
+    private final CacheSnapshot snapshot;
+    private final CacheMetrics.Region stats;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private SharedTimer persistTimer;
+
+    private CacheRegion(Cache<String, CacheEntry> cache, Storage storage,
+        CacheSnapshot snapshot, CacheMetrics.Region stats) {
+      this.cache = cache;
+      this.storage = storage;
+      this.snapshot = snapshot;
+      this.stats = stats;
+    }
+
+    void put(String key, CacheEntry entry) {
+      stats.added(entry.weight());
+      cache.put(key, entry);
+    }
+
+    /**
+     * Returns the cached entry. Entries loaded from the snapshot are restored lazily, on the first
+     * lookup, with their original write time.
+     */
+    CacheEntry get(String key) {
+      CacheEntry entry = cache.getIfPresent(key);
+      if (entry == null && snapshot != null) {
+        CacheSnapshot.Entry restored = snapshot.take(key);
+        if (restored != null) {
+          entry = storage.restore(restored.getValue(), restored.getWriteTime());
+          put(key, entry);
+        }
+      }
+      return entry;
+    }
+
+    void schedulePersist(Vertx vertx, long interval) {
+      if (snapshot == null) {
+        return;
+      }
+      persistTimer = new SharedTimer(vertx, interval, id -> vertx.<Void>executeBlocking(future -> {
+        List<CacheSnapshot.Entry> entries = new ArrayList<>();
+        cache.asMap().forEach((key, entry) -> entries
+            .add(new CacheSnapshot.Entry(key, entry.encoded(), entry.writeTime)));
+        try {
+          snapshot.write(entries);
+          future.complete();
+        } catch (IOException e) {
+          future.fail(e);
+        }
+      }, false, result -> {
+        if (result.failed()) {
+          LOGGER.warn("Could not write cache snapshot [{}].", result.cause(), snapshot);
+        }
+      }));
+    }
+
+    /**
+     * Adds the verticle using the region, the snapshot timer is owned by one of the users.
+     */
+    void join(Context context) {
+      if (persistTimer != null) {
+        persistTimer.join(context);
+      }
+    }
+
+    /**
+     * Removes the verticle using the region, the snapshot timer is cancelled with the last user.
+     */
+    void leave(Context context) {
+      if (persistTimer != null) {
+        persistTimer.leave(context);
+      }
+    }
+
+    /**
+     * Drops cached entries when the region is released by the last user.
+     */
+    void close() {
+      cache.invalidateAll();
+    }
+  }
+
+  private static class CacheOptions {
+
+    private final JsonObject json;
+    private final String name;
+    private final int concurrencyLevel;
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final Storage storage;
+    private final long ttl;
+    private final long staleWhileRevalidate;
+    private final long staleIfError;
+    private final String snapshotPath;
+    private final long snapshotInterval;
+
+    CacheOptions(JsonObject cache) {
+      JsonObject options = cache == null ? new JsonObject() : cache;
+      json = options.copy();
+      name = options.getString("name");
+      concurrencyLevel = options.getInteger("concurrencyLevel", 0);
+      maximumSize = options.getLong("maximumSize", DEFAULT_MAXIMUM_SIZE);
+      maximumWeight = options.getLong("maximumWeight", 0L);
+      storage = Storage.of(options.getString("storage"));
+      ttl = options.getLong("ttl", DEFAULT_TTL);
+      staleWhileRevalidate = options.getLong("staleWhileRevalidate", 0L);
+      staleIfError = options.getLong("staleIfError", 0L);
+      JsonObject snapshot = options.getJsonObject("snapshot", new JsonObject());
+      snapshotPath = snapshot.getString("path");
+      snapshotInterval = snapshot.getLong("interval", DEFAULT_SNAPSHOT_INTERVAL);
+      if (maximumWeight > 0 && storage == Storage.OBJECT) {
+        throw new IllegalArgumentException(
+            "Cache maximumWeight requires serialized or off-heap storage.");
+      }
+    }
+
+    /**
+     * @return time after which entries can not be served, even stale
+     */
+    long maxAge() {
+      return ttl + Math.max(staleWhileRevalidate, staleIfError);
+    }
+  }
+
+  /**
+   * Cache entries storage. Object storage keeps values as they are, serialized and off-heap
+   * storages keep them as JSON encoded bytes (decoded on each hit), so they are weighted in bytes
+   * and never shared between requests.
+   */
+  enum Storage {
+    OBJECT,
+    SERIALIZED,
+    OFF_HEAP;
+
+    private static final String VALUE_KEY = "value";
+
+    static Storage of(String name) {
+      return StringUtils.isBlank(name) ? OBJECT
+          : valueOf(name.trim().replace('-', '_').toUpperCase());
+    }
+
+    CacheEntry entry(Object value) {
+      if (this == OBJECT) {
+        return new CacheEntry(value, null, System.currentTimeMillis());
+      }
+      return restore(encode(value), System.currentTimeMillis());
+    }
+
+    CacheEntry restore(byte[] bytes, long writeTime) {
+      if (this == OBJECT) {
+        return new CacheEntry(decode(bytes), null, writeTime);
+      }
+      ByteBuffer buffer = this == OFF_HEAP
+          ? (ByteBuffer) ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()
+          : ByteBuffer.wrap(bytes);
+      return new CacheEntry(null, buffer, writeTime);
+    }
+
+    static byte[] encode(Object value) {
+      return new JsonObject().put(VALUE_KEY, value).toBuffer().getBytes();
+    }
+
+    static Object decode(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return decode(bytes);
+    }
+
+    static Object decode(byte[] bytes) {
+      return new JsonObject(Buffer.buffer(bytes)).getValue(VALUE_KEY);
+    }
+  }
+
+  private static class CacheEntry {
+
+    private final Object value;
+    private final ByteBuffer bytes;
+    private final long writeTime;
+
+    CacheEntry(Object value, ByteBuffer bytes, long writeTime) {
+      this.value = value;
+      this.bytes = bytes;
+      this.writeTime = writeTime;
+    }
+
+    Object value() {
+      return bytes == null ? value : Storage.decode(bytes);
+    }
+
+    byte[] encoded() {
+      if (bytes == null) {
+        return Storage.encode(value);
+      }
+      byte[] result = new byte[bytes.remaining()];
+      bytes.duplicate().get(result);
+      return result;
+    }
+
+    int weight() {
+      return bytes == null ? 1 : bytes.capacity();
+    }
+
+    long age() {
+      return System.currentTimeMillis() - writeTime;
+    }
   }
 
-  private SourceDefinitions buildSourceDefinitions(ClientRequest clientRequest) {
-    return SourceDefinitions.builder()
-        .addClientRequestSource(clientRequest)
-        .build();
+  /**
+   * Requests waiting for the doAction invoked for the same cache key. Waiters complete with their
+   * own fragments, extended with the cached payload value (as for a cache hit). An error or other
+   * transition is passed to all waiters.
+   */
+  private static class InFlight {
+
+    private final String payloadKey;
+    private final int maxWaiters;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private boolean completed;
+
+    InFlight(String payloadKey, int maxWaiters) {
+      this.payloadKey = payloadKey;
+      this.maxWaiters = maxWaiters;
+    }
+
+    synchronized boolean await(FragmentContext fragmentContext, String waiterPayloadKey,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      if (completed || waiters.size() >= maxWaiters) {
+        return false;
+      }
+      waiters.add(new Waiter(fragmentContext.getFragment(), waiterPayloadKey, resultHandler,
+          Vertx.currentContext()));
+      return true;
+    }
+
+    void complete(AsyncResult<FragmentResult> asyncResult) {
+      List<Waiter> toComplete;
+      synchronized (this) {
+        completed = true;
+        toComplete = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+      toComplete.forEach(waiter -> waiter.complete(asyncResult, payloadKey));
+    }
   }
 
-  private Cache<String, Object> createCache(JsonObject config) {
-    JsonObject cache = config.getJsonObject("cache");
-    long maxSize =
-        cache == null ? DEFAULT_MAXIMUM_SIZE : cache.getLong("maximumSize", DEFAULT_MAXIMUM_SIZE);
-    long ttl = cache == null ? DEFAULT_TTL : cache.getLong("ttl", DEFAULT_TTL);
-    return CacheBuilder.newBuilder()
-        .maximumSize(maxSize)
-        .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
-        .build();
+  private static class Waiter {
+
+    private final Fragment fragment;
+    private final String payloadKey;
+    private final Handler<AsyncResult<FragmentResult>> resultHandler;
+    private final Context context;
+
+    Waiter(Fragment fragment, String payloadKey,
+        Handler<AsyncResult<FragmentResult>> resultHandler, Context context) {
+      this.fragment = fragment;
+      this.payloadKey = payloadKey;
+      this.resultHandler = resultHandler;
+      this.context = context;
+    }
+
+    void complete(AsyncResult<FragmentResult> asyncResult, String leaderPayloadKey) {
+      AsyncResult<FragmentResult> result = asyncResult.map(leaderResult -> {
+        Object value = leaderResult.getFragment().getPayload().getMap().get(leaderPayloadKey);
+        if (value != null) {
+          fragment.appendPayload(payloadKey, value);
+        }
+        return new FragmentResult(fragment, leaderResult.getTransition());
+      });
+      // waiters can come from other event loops, results are handled on their own contexts
+      if (context == null || Vertx.currentContext() == context) {
+        resultHandler.handle(result);
+      } else {
+        context.runOnContext(v -> resultHandler.handle(result));
+      }
+    }
   }
 }
@@ -18,6 +18,7 @@ package io.knotx.fragments.handler.action;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.task.options.GraphNodeOptions;
 import io.vertx.core.Future;
@@ -38,6 +39,7 @@ import io.vertx.core.json.JsonObject;
  * {@link GraphNodeOptions#isComposite()}.
  */
 @Cacheable
+@NonBlocking
 public class InlineBodyActionFactory implements ActionFactory {
 
   private static final String DEFAULT_EMPTY_BODY = "";
@@ -19,13 +19,23 @@ import io.knotx.fragments.handler.api.Knot;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonObject;
 
 @Cacheable
+@NonBlocking
 public class KnotFactory implements ActionFactory {
 
+  // the service proxy protocol of the Knot#apply method
+  private static final String ACTION_HEADER = "action";
+  private static final String APPLY_METHOD = "apply";
+  private static final String FRAGMENT_CONTEXT_PARAM = "fragmentContext";
+
   @Override
   public String getName() {
     return "knot";
@@ -39,7 +49,35 @@ public class KnotFactory implements ActionFactory {
         config.getJsonObject("deliveryOptions") == null ? new JsonObject()
             : config.getJsonObject("deliveryOptions"));
 
-    return Knot.createProxyWithOptions(vertx, address, deliveryOptions);
+    Knot knot = Knot.createProxyWithOptions(vertx, address, deliveryOptions);
+    return (fragmentContext, resultHandler) -> {
+      long remaining = remainingTime(fragmentContext);
+      if (remaining < deliveryOptions.getSendTimeout()) {
+        // the request budget is shorter than the configured timeout
+        DeliveryOptions budgetOptions = new DeliveryOptions(deliveryOptions)
+            .setSendTimeout(Math.max(1, remaining))
+            .addHeader(ACTION_HEADER, APPLY_METHOD);
+        JsonObject message = new JsonObject()
+            .put(FRAGMENT_CONTEXT_PARAM, fragmentContext.toJson());
+        vertx.eventBus().<JsonObject>request(address, message, budgetOptions, reply -> {
+          if (reply.succeeded()) {
+            JsonObject body = reply.result().body();
+            resultHandler.handle(Future.succeededFuture(
+                body == null ? null : new FragmentResult(body)));
+          } else {
+            resultHandler.handle(Future.failedFuture(reply.cause()));
+          }
+        });
+      } else {
+        knot.apply(fragmentContext, resultHandler);
+      }
+    };
+  }
+
+  private static long remainingTime(FragmentContext fragmentContext) {
+    return fragmentContext.hasDeadline()
+        ? fragmentContext.getDeadline() - System.currentTimeMillis()
+        : Long.MAX_VALUE;
   }
 
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Rate limit action factory class. It caps the `doAction` invocations rate with a token bucket
+ * shared by name in the JVM, so the limit holds regardless of the number of handler instances.
+ * A call over the limit may wait for a token up to the configured max wait (and never beyond the
+ * request deadline), otherwise it gets the throttled transition without invoking the `doAction`.
+ * It can be initialized with a configuration:
+ * <pre>
+ *   productRateLimit {
+ *     name = rate-limit,
+ *     config {
+ *       rate = 50
+ *       burst = 10
+ *       maxWait = 20
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@NonBlocking
+public class RateLimitActionFactory implements ActionFactory {
+
+  static final String THROTTLED_TRANSITION = "_throttled";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitActionFactory.class);
+
+  private static final String RATE_LIMITS_MAP = "knotx.fragments.rate-limits";
+
+  @Override
+  public String getName() {
+    return "rate-limit";
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (doAction == null) {
+      throw new DoActionNotDefinedException("Rate limit action requires `doAction` defined");
+    }
+    Double rate = config.getDouble("rate");
+    if (rate == null || rate <= 0) {
+      throw new IllegalArgumentException("Rate limit action requires positive `rate` defined");
+    }
+    String name = StringUtils.defaultIfBlank(config.getString("name"), alias);
+    TokenBucket bucket = bucket(vertx, name, rate,
+        config.getInteger("burst", Math.max(1, rate.intValue())));
+    return new RateLimitAction(vertx, bucket, doAction, config.getLong("maxWait", 0L),
+        config.getString("throttledTransition", THROTTLED_TRANSITION));
+  }
+
+  /**
+   * Returns the token bucket shared by name in the Vert.x instance, see {@link SharedRegistry}.
+   */
+  static TokenBucket bucket(Vertx vertx, String name, double rate, int burst) {
+    return SharedRegistry.getOrCreate(vertx, RATE_LIMITS_MAP, name,
+        new JsonObject().put("rate", rate).put("burst", burst),
+        () -> new TokenBucket(rate, burst));
+  }
+
+  public static class RateLimitAction implements Action {
+
+    private final Vertx vertx;
+    private final TokenBucket bucket;
+    private final Action doAction;
+    private final long maxWait;
+    private final String throttledTransition;
+
+    RateLimitAction(Vertx vertx, TokenBucket bucket, Action doAction, long maxWait,
+        String throttledTransition) {
+      this.vertx = vertx;
+      this.bucket = bucket;
+      this.doAction = doAction;
+      this.maxWait = maxWait;
+      this.throttledTransition = throttledTransition;
+    }
+
+    @Override
+    public void apply(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      long wait = maxWait;
+      if (fragmentContext.hasDeadline()) {
+        wait = Math.min(wait, fragmentContext.getDeadline() - System.currentTimeMillis());
+      }
+      long delay = bucket.acquire(TimeUnit.MILLISECONDS.toNanos(Math.max(0, wait)));
+      if (delay < 0) {
+        LOGGER.debug("Rate limit exceeded, fragment [{}] gets transition [{}].",
+            fragmentContext.getFragment().getId(), throttledTransition);
+        Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(), throttledTransition))
+            .setHandler(resultHandler);
+      } else if (delay == 0) {
+        doAction.apply(fragmentContext, resultHandler);
+      } else {
+        vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay)),
+            id -> doAction.apply(fragmentContext, resultHandler));
+      }
+    }
+  }
+
+  /**
+   * Lock-free token bucket implemented as the generic cell rate algorithm. The only state is the
+   * theoretical arrival time of the next call, updated with compare-and-set. A call is permitted
+   * when it is not earlier than the theoretical arrival time minus the burst tolerance.
+   */
+  static final class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong arrival;
+
+    TokenBucket(double rate, int burst) {
+      this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+      this.tolerance = interval * (Math.max(1, burst) - 1);
+      this.arrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token, reserving a future one when no token is available now.
+     *
+     * @param maxWait max time in nanoseconds the call can wait for a token
+     * @return {@code 0} when a token is available now, time in nanoseconds to wait for the
+     * reserved token or {@code -1} when the call is throttled
+     */
+    long acquire(long maxWait) {
+      long now = System.nanoTime();
+      long current;
+      long next;
+      long delay;
+      do {
+        current = arrival.get();
+        long base = Math.max(current, now);
+        delay = base - tolerance - now;
+        if (delay > maxWait) {
+          return -1;
+        }
+        next = base + interval;
+      } while (!arrival.compareAndSet(current, next));
+      return Math.max(0, delay);
+    }
+
+    @Override
+    public String toString() {
+      return "TokenBucket{" +
+          "interval=" + interval +
+          ", tolerance=" + tolerance +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.NonBlocking;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry action factory class. When the `doAction` fails with a retryable error, it is invoked
+ * again (with a copy of the fragment) after an exponential backoff with jitter, scheduled with a
+ * Vert.x timer. Retries are limited by a budget shared by name in the Vert.x instance (the action
+ * alias by default), so they never exceed the configured ratio of calls and cannot amplify an
+ * outage. It can be initialized with a configuration:
+ * <pre>
+ *   productRetry {
+ *     name = retry,
+ *     config {
+ *       maxRetries = 2
+ *       retryOn = [ TIMEOUT ]
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@NonBlocking
+public class RetryActionFactory implements ActionFactory {
+
+  static final int DEFAULT_MAX_RETRIES = 3;
+  static final long DEFAULT_INITIAL_DELAY = 50;
+  static final double DEFAULT_MULTIPLIER = 2.0;
+  static final long DEFAULT_MAX_DELAY = 1000;
+  static final double DEFAULT_JITTER = 0.5;
+  static final double DEFAULT_BUDGET_RATIO = 0.1;
+  static final int DEFAULT_BUDGET_BURST = 10;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RetryActionFactory.class);
+
+  private static final String RETRY_BUDGETS_MAP = "knotx.fragments.retry-budgets";
+
+  @Override
+  public String getName() {
+    return "retry";
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (doAction == null) {
+      throw new DoActionNotDefinedException("Retry action requires `doAction` defined");
+    }
+    Backoff backoff = new Backoff(
+        config.getLong("initialDelay", DEFAULT_INITIAL_DELAY),
+        config.getDouble("multiplier", DEFAULT_MULTIPLIER),
+        config.getLong("maxDelay", DEFAULT_MAX_DELAY),
+        config.getDouble("jitter", DEFAULT_JITTER));
+    JsonObject budgetConfig = config.getJsonObject("budget", new JsonObject());
+    CallBudget budget = budget(vertx,
+        budgetConfig.getString("name", alias),
+        budgetConfig.getDouble("ratio", DEFAULT_BUDGET_RATIO),
+        budgetConfig.getInteger("burst", DEFAULT_BUDGET_BURST));
+    return new RetryAction(vertx, doAction, config.getInteger("maxRetries", DEFAULT_MAX_RETRIES),
+        new RetryPolicy(config.getJsonArray("retryOn")), backoff, budget);
+  }
+
+  /**
+   * Returns the retry budget shared by name in the Vert.x instance, see {@link SharedRegistry}.
+   */
+  static CallBudget budget(Vertx vertx, String name, double ratio, int burst) {
+    return SharedRegistry.getOrCreate(vertx, RETRY_BUDGETS_MAP, name,
+        new JsonObject().put("ratio", ratio).put("burst", burst),
+        () -> new CallBudget(ratio, burst));
+  }
+
+  public static class RetryAction implements Action {
+
+    private final Vertx vertx;
+    private final Action doAction;
+    private final int maxRetries;
+    private final RetryPolicy policy;
+    private final Backoff backoff;
+    private final CallBudget budget;
+
+    RetryAction(Vertx vertx, Action doAction, int maxRetries, RetryPolicy policy,
+        Backoff backoff, CallBudget budget) {
+      this.vertx = vertx;
+      this.doAction = doAction;
+      this.maxRetries = maxRetries;
+      this.policy = policy;
+      this.backoff = backoff;
+      this.budget = budget;
+    }
+
+    @Override
+    public void apply(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      budget.deposit();
+      attempt(fragmentContext, 0, resultHandler);
+    }
+
+    private void attempt(FragmentContext fragmentContext, int retry,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      doAction.apply(retry == 0 ? fragmentContext : copy(fragmentContext), result -> {
+        if (result.succeeded() || retry >= maxRetries || !policy.isRetryable(result.cause())) {
+          resultHandler.handle(result);
+          return;
+        }
+        long delay = backoff.delay(retry);
+        if (fragmentContext.hasDeadline()
+            && System.currentTimeMillis() + delay >= fragmentContext.getDeadline()) {
+          resultHandler.handle(result);
+          return;
+        }
+        if (!budget.withdraw()) {
+          LOGGER.warn("Retry budget exhausted, fragment [{}] is not retried.",
+              fragmentContext.getFragment().getId());
+          resultHandler.handle(result);
+          return;
+        }
+        LOGGER.debug("Fragment [{}] is retried in [{}] ms after [{}].",
+            fragmentContext.getFragment().getId(), delay, result.cause().getMessage());
+        vertx.setTimer(delay, id -> attempt(fragmentContext, retry + 1, resultHandler));
+      });
+    }
+
+    /**
+     * Each retry gets its own fragment, so it does not share the instance with the failed attempts.
+     */
+    private FragmentContext copy(FragmentContext fragmentContext) {
+      Fragment fragment = new Fragment(fragmentContext.getFragment().toJson().copy());
+      return new FragmentContext(fragment, fragmentContext.getClientRequest(),
+          fragmentContext.getDeadline());
+    }
+  }
+
+  /**
+   * Errors to retry. A {@link ReplyException} matches its failure type (e.g. {@code TIMEOUT},
+   * {@code NO_HANDLERS}, {@code RECIPIENT_FAILURE}), any error matches its class name or the name of
+   * its superclass. When no error type is configured, all errors are retried.
+   */
+  static class RetryPolicy {
+
+    private final Set<String> retryOn;
+
+    RetryPolicy(JsonArray retryOn) {
+      Set<String> types = new HashSet<>();
+      if (retryOn != null) {
+        retryOn.forEach(type -> types.add(String.valueOf(type)));
+      }
+      this.retryOn = Collections.unmodifiableSet(types);
+    }
+
+    boolean isRetryable(Throwable error) {
+      if (retryOn.isEmpty()) {
+        return true;
+      }
+      if (error instanceof ReplyException
+          && retryOn.contains(((ReplyException) error).failureType().name())) {
+        return true;
+      }
+      for (Class<?> type = error.getClass(); type != null; type = type.getSuperclass()) {
+        if (retryOn.contains(type.getName()) || retryOn.contains(type.getSimpleName())) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Exponential backoff. The jitter is a random part of the delay, {@code 0} means a fixed delay
+   * and {@code 1} the full jitter.
+   */
+  static class Backoff {
+
+    private final long initialDelay;
+    private final double multiplier;
+    private final long maxDelay;
+    private final double jitter;
+
+    Backoff(long initialDelay, double multiplier, long maxDelay, double jitter) {
+      this.initialDelay = Math.max(1, initialDelay);
+      this.multiplier = multiplier;
+      this.maxDelay = Math.max(this.initialDelay, maxDelay);
+      this.jitter = Math.min(1, Math.max(0, jitter));
+    }
+
+    long delay(int retry) {
+      double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, retry));
+      double random = jitter * delay * ThreadLocalRandom.current().nextDouble();
+      return Math.max(1, Math.round(delay - random));
+    }
+  }
+}
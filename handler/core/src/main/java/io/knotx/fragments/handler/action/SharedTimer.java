@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodic timer of a resource shared by many verticles. Vert.x cancels timers together with the
+ * verticle that set them, so when the owner leaves, the timer is set again on the context of
+ * another user. It is cancelled when the last user leaves.
+ */
+final class SharedTimer {
+
+  private final Vertx vertx;
+  private final long interval;
+  private final Handler<Long> handler;
+  private final List<Context> users = new ArrayList<>();
+  private Context owner;
+  private long timerId = -1;
+
+  SharedTimer(Vertx vertx, long interval, Handler<Long> handler) {
+    this.vertx = vertx;
+    this.interval = interval;
+    this.handler = handler;
+  }
+
+  /**
+   * Adds the user, the timer is set on the context of the first one.
+   *
+   * @param context user context
+   */
+  synchronized void join(Context context) {
+    users.add(context);
+    if (owner == null) {
+      start(context);
+    }
+  }
+
+  /**
+   * Removes the user. When it owns the timer, the timer is moved to the next user.
+   *
+   * @param context user context
+   */
+  synchronized void leave(Context context) {
+    users.remove(context);
+    if (owner == context) {
+      if (timerId >= 0) {
+        vertx.cancelTimer(timerId);
+        timerId = -1;
+      }
+      owner = null;
+      if (!users.isEmpty()) {
+        start(users.get(0));
+      }
+    }
+  }
+
+  private void start(Context context) {
+    owner = context;
+    if (Vertx.currentContext() == context) {
+      timerId = vertx.setPeriodic(interval, handler);
+    } else {
+      context.runOnContext(v -> startOn(context));
+    }
+  }
+
+  private synchronized void startOn(Context context) {
+    if (owner == context && timerId < 0) {
+      timerId = vertx.setPeriodic(interval, handler);
+    }
+  }
+}
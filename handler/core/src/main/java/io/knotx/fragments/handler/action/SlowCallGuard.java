@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Opens the circuit when the share of slow calls in the sliding count window exceeds the rate
+ * threshold. After the reset timeout the circuit is half-open and a limited number of concurrent
+ * trial calls is permitted. It closes when all trials are fast and opens again when any of them is
+ * slow. It complements the Vert.x circuit breaker, which counts only failures and timeouts.
+ */
+class SlowCallGuard {
+
+  static final long DEFAULT_DURATION = 1000;
+  static final double DEFAULT_RATE_THRESHOLD = 0.5;
+  static final int DEFAULT_WINDOW_SIZE = 100;
+  static final int DEFAULT_MINIMUM_CALLS = 10;
+  static final int DEFAULT_HALF_OPEN_CALLS = 1;
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  enum Permit {
+    CALL, TRIAL, REJECTED
+  }
+
+  private final long slowCallDuration;
+  private final double rateThreshold;
+  private final int minimumCalls;
+  private final int halfOpenCalls;
+  private final long resetTimeout;
+
+  private final boolean[] window;
+  private int position;
+  private int calls;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int trialsInFlight;
+  private int fastTrials;
+
+  SlowCallGuard(long slowCallDuration, double rateThreshold, int windowSize, int minimumCalls,
+      int halfOpenCalls, long resetTimeout) {
+    this.slowCallDuration = slowCallDuration;
+    this.rateThreshold = rateThreshold;
+    this.window = new boolean[Math.max(1, windowSize)];
+    this.minimumCalls = minimumCalls;
+    this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    this.resetTimeout = resetTimeout;
+  }
+
+  /**
+   * Creates the guard from the {@code slowCalls} configuration.
+   *
+   * @param config slow calls configuration, can be {@code null}
+   * @param resetTimeout time in milliseconds spent in the open state
+   * @return guard or {@code null} when slow calls are not configured
+   */
+  static SlowCallGuard create(JsonObject config, long resetTimeout) {
+    if (config == null) {
+      return null;
+    }
+    return new SlowCallGuard(
+        config.getLong("duration", DEFAULT_DURATION),
+        config.getDouble("rateThreshold", DEFAULT_RATE_THRESHOLD),
+        config.getInteger("windowSize", DEFAULT_WINDOW_SIZE),
+        config.getInteger("minimumCalls", DEFAULT_MINIMUM_CALLS),
+        config.getInteger("halfOpenCalls", DEFAULT_HALF_OPEN_CALLS),
+        config.getLong("resetTimeout", resetTimeout));
+  }
+
+  synchronized Permit acquire() {
+    if (state == State.OPEN) {
+      if (System.currentTimeMillis() - openedAt < resetTimeout) {
+        return Permit.REJECTED;
+      }
+      state = State.HALF_OPEN;
+      trialsInFlight = 0;
+      fastTrials = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialsInFlight >= halfOpenCalls) {
+        return Permit.REJECTED;
+      }
+      trialsInFlight++;
+      return Permit.TRIAL;
+    }
+    return Permit.CALL;
+  }
+
+  synchronized void record(Permit permit, long duration) {
+    boolean slow = duration >= slowCallDuration;
+    if (permit == Permit.TRIAL) {
+      if (state != State.HALF_OPEN) {
+        return;
+      }
+      trialsInFlight--;
+      if (slow) {
+        open();
+      } else if (++fastTrials >= halfOpenCalls) {
+        close();
+      }
+    } else if (permit == Permit.CALL && state == State.CLOSED) {
+      if (calls == window.length) {
+        slowCalls -= window[position] ? 1 : 0;
+      } else {
+        calls++;
+      }
+      window[position] = slow;
+      slowCalls += slow ? 1 : 0;
+      position = (position + 1) % window.length;
+      if (calls >= minimumCalls && slowCalls >= rateThreshold * calls) {
+        open();
+      }
+    }
+  }
+
+  /**
+   * Releases the permit of a call that did not reach the backend.
+   */
+  synchronized void release(Permit permit) {
+    if (permit == Permit.TRIAL && state == State.HALF_OPEN) {
+      trialsInFlight--;
+    }
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  private void open() {
+    state = State.OPEN;
+    openedAt = System.currentTimeMillis();
+  }
+
+  private void close() {
+    state = State.CLOSED;
+    position = 0;
+    calls = 0;
+    slowCalls = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "SlowCallGuard{" +
+        "slowCallDuration=" + slowCallDuration +
+        ", rateThreshold=" + rateThreshold +
+        ", windowSize=" + window.length +
+        ", minimumCalls=" + minimumCalls +
+        ", halfOpenCalls=" + halfOpenCalls +
+        ", resetTimeout=" + resetTimeout +
+        '}';
+  }
+}
@@ -15,6 +15,7 @@
  */
 package io.knotx.fragments.handler.options;
 
+import io.knotx.fragments.engine.FragmentsEngineOptions;
 import io.knotx.fragments.handler.action.ActionOptions;
 import io.knotx.fragments.task.options.TaskOptions;
 import io.vertx.codegen.annotations.DataObject;
@@ -33,6 +34,16 @@ public class FragmentsHandlerOptions {
 
   private Map<String, ActionOptions> actions;
 
+  private boolean virtualThreads;
+
+  private int maxConcurrentFragmentsPerRequest;
+
+  private int maxConcurrentBlockingNodes;
+
+  private long requestTimeout;
+
+  private String requestTimeoutHeader;
+
   public FragmentsHandlerOptions(JsonObject json) {
     init();
     FragmentsHandlerOptionsConverter.fromJson(json, this);
@@ -40,6 +51,9 @@ public class FragmentsHandlerOptions {
 
   private void init() {
     this.taskKey = DEFAULT_TASK_KEY;
+    this.maxConcurrentFragmentsPerRequest =
+        FragmentsEngineOptions.DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_REQUEST;
+    this.maxConcurrentBlockingNodes = FragmentsEngineOptions.DEFAULT_MAX_CONCURRENT_BLOCKING_NODES;
   }
 
   public JsonObject toJson() {
@@ -87,6 +101,105 @@ public class FragmentsHandlerOptions {
     return this;
   }
 
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Runs blocking actions on a virtual-thread-per-task executor (JDK 21+) instead of the Vert.x
+   * worker pool. Results are delivered back on the request's event loop. On older runtimes a
+   * warning is logged and the worker pool is used. The default value is {@code false}.
+   *
+   * @param virtualThreads {@code true} to run blocking actions on virtual threads
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsHandlerOptions setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  public int getMaxConcurrentFragmentsPerRequest() {
+    return maxConcurrentFragmentsPerRequest;
+  }
+
+  /**
+   * Sets the maximum number of fragments of a single request processed concurrently. The default
+   * value is 128.
+   *
+   * @param maxConcurrentFragmentsPerRequest max number of fragments processed concurrently,
+   * greater than {@code 0}
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsHandlerOptions setMaxConcurrentFragmentsPerRequest(
+      int maxConcurrentFragmentsPerRequest) {
+    if (maxConcurrentFragmentsPerRequest <= 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrentFragmentsPerRequest must be greater than 0, got ["
+              + maxConcurrentFragmentsPerRequest + "]");
+    }
+    this.maxConcurrentFragmentsPerRequest = maxConcurrentFragmentsPerRequest;
+    return this;
+  }
+
+  public int getMaxConcurrentBlockingNodes() {
+    return maxConcurrentBlockingNodes;
+  }
+
+  /**
+   * Sets the maximum number of blocking action nodes executed concurrently in the Vert.x instance.
+   * Pending nodes are interleaved between requests in round-robin order, so large pages can not
+   * delay small ones. The value {@code 0} (default) disables the limit.
+   *
+   * @param maxConcurrentBlockingNodes max number of blocking nodes executed concurrently, not
+   * negative
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsHandlerOptions setMaxConcurrentBlockingNodes(int maxConcurrentBlockingNodes) {
+    if (maxConcurrentBlockingNodes < 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrentBlockingNodes must not be negative, got [" + maxConcurrentBlockingNodes
+              + "]");
+    }
+    this.maxConcurrentBlockingNodes = maxConcurrentBlockingNodes;
+    return this;
+  }
+
+  public long getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  /**
+   * Sets the request processing time budget in milliseconds. Each node gets only the remaining
+   * budget: event bus timeouts are shortened to it and nodes invoked after the budget is exhausted
+   * end with the {@code _error} transition without being invoked. The value {@code 0} (default)
+   * means no budget.
+   *
+   * @param requestTimeout request time budget in milliseconds
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsHandlerOptions setRequestTimeout(long requestTimeout) {
+    this.requestTimeout = requestTimeout;
+    return this;
+  }
+
+  public String getRequestTimeoutHeader() {
+    return requestTimeoutHeader;
+  }
+
+  /**
+   * Sets the name of the request header containing the request processing time budget in
+   * milliseconds (e.g. set by a proxy that knows when the client gives up). When both the header
+   * and the request timeout are set, the shorter budget is used. If not set ({@code null}), headers
+   * are ignored.
+   *
+   * @param requestTimeoutHeader request timeout header name
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsHandlerOptions setRequestTimeoutHeader(String requestTimeoutHeader) {
+    this.requestTimeoutHeader = requestTimeoutHeader;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -96,13 +209,19 @@ public class FragmentsHandlerOptions {
       return false;
     }
     FragmentsHandlerOptions that = (FragmentsHandlerOptions) o;
-    return Objects.equals(tasks, that.tasks) &&
+    return virtualThreads == that.virtualThreads &&
+        maxConcurrentFragmentsPerRequest == that.maxConcurrentFragmentsPerRequest &&
+        maxConcurrentBlockingNodes == that.maxConcurrentBlockingNodes &&
+        requestTimeout == that.requestTimeout &&
+        Objects.equals(requestTimeoutHeader, that.requestTimeoutHeader) &&
+        Objects.equals(tasks, that.tasks) &&
         Objects.equals(actions, that.actions);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(tasks, actions);
+    return Objects.hash(tasks, actions, virtualThreads, maxConcurrentFragmentsPerRequest,
+        maxConcurrentBlockingNodes, requestTimeout, requestTimeoutHeader);
   }
 
   @Override
@@ -110,6 +229,11 @@ public class FragmentsHandlerOptions {
     return "FragmentsHandlerOptions{" +
         "tasks=" + tasks +
         ", actions=" + actions +
+        ", virtualThreads=" + virtualThreads +
+        ", maxConcurrentFragmentsPerRequest=" + maxConcurrentFragmentsPerRequest +
+        ", maxConcurrentBlockingNodes=" + maxConcurrentBlockingNodes +
+        ", requestTimeout=" + requestTimeout +
+        ", requestTimeoutHeader='" + requestTimeoutHeader + '\'' +
         '}';
   }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.placeholders;
+
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.common.placeholders.PlaceholdersResolver;
+import io.knotx.server.common.placeholders.SourceDefinitions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * String template with placeholders (e.g. {@code product-{param.id}}) parsed once into a sequence
+ * of literal and placeholder segments. Request parameters and headers are read directly from the
+ * {@link ClientRequest}, other placeholders are resolved with {@link PlaceholdersResolver}.
+ */
+public final class ClientRequestTemplate {
+
+  private static final String PARAM_PREFIX = "param.";
+  private static final String HEADER_PREFIX = "header.";
+  private static final int MAX_REUSED_BUILDER_CAPACITY = 1024;
+
+  private static final ThreadLocal<StringBuilder> BUILDER =
+      ThreadLocal.withInitial(StringBuilder::new);
+
+  private final String template;
+  private final List<Segment> segments;
+
+  private ClientRequestTemplate(String template, List<Segment> segments) {
+    this.template = template;
+    this.segments = segments;
+  }
+
+  /**
+   * Parses the template.
+   *
+   * @param template template with placeholders
+   * @return compiled template
+   * @throws IllegalArgumentException when template is blank
+   */
+  public static ClientRequestTemplate compile(String template) {
+    if (StringUtils.isBlank(template)) {
+      throw new IllegalArgumentException("Template can not be blank.");
+    }
+    List<Segment> segments = new ArrayList<>();
+    int position = 0;
+    while (position < template.length()) {
+      int start = template.indexOf('{', position);
+      int end = start < 0 ? -1 : template.indexOf('}', start);
+      if (end < 0) {
+        segments.add(literal(template.substring(position)));
+        break;
+      }
+      if (start > position) {
+        segments.add(literal(template.substring(position, start)));
+      }
+      segments.add(placeholder(template.substring(start + 1, end)));
+      position = end + 1;
+    }
+    return new ClientRequestTemplate(template, Collections.unmodifiableList(segments));
+  }
+
+  /**
+   * Renders the template with the request data. It uses a builder reused by the calling thread.
+   *
+   * @param clientRequest client request
+   * @return rendered string
+   */
+  public String render(ClientRequest clientRequest) {
+    StringBuilder builder = BUILDER.get();
+    builder.setLength(0);
+    renderTo(builder, clientRequest);
+    String result = builder.toString();
+    if (builder.capacity() > MAX_REUSED_BUILDER_CAPACITY) {
+      BUILDER.remove();
+    }
+    return result;
+  }
+
+  /**
+   * Appends the rendered template to the builder.
+   *
+   * @param builder target builder
+   * @param clientRequest client request
+   */
+  public void renderTo(StringBuilder builder, ClientRequest clientRequest) {
+    for (Segment segment : segments) {
+      segment.appendTo(builder, clientRequest);
+    }
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  @Override
+  public String toString() {
+    return "ClientRequestTemplate{" +
+        "template='" + template + '\'' +
+        '}';
+  }
+
+  private static Segment literal(String text) {
+    return (builder, clientRequest) -> builder.append(text);
+  }
+
+  private static Segment placeholder(String placeholder) {
+    if (placeholder.startsWith(PARAM_PREFIX)) {
+      String name = placeholder.substring(PARAM_PREFIX.length());
+      return (builder, clientRequest) -> appendValue(builder,
+          clientRequest.getParams().get(name));
+    }
+    if (placeholder.startsWith(HEADER_PREFIX)) {
+      String name = placeholder.substring(HEADER_PREFIX.length());
+      return (builder, clientRequest) -> appendValue(builder,
+          clientRequest.getHeaders().get(name));
+    }
+    String wrapped = "{" + placeholder + "}";
+    return (builder, clientRequest) -> builder.append(PlaceholdersResolver.resolve(wrapped,
+        SourceDefinitions.builder().addClientRequestSource(clientRequest).build()));
+  }
+
+  private static void appendValue(StringBuilder builder, String value) {
+    if (value != null) {
+      builder.append(value);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Segment {
+
+    void appendTo(StringBuilder builder, ClientRequest clientRequest);
+  }
+}
@@ -37,6 +37,7 @@ import io.reactivex.Single;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -50,6 +51,19 @@ public class ConfigurationTaskProvider implements TaskProvider {
 
   @Override
   public Task newInstance(Configuration taskConfig, FragmentEventContext event) {
+    return build(taskConfig);
+  }
+
+  /**
+   * Graph defined in configuration does not depend on fragment and request data, so it can be
+   * built once and shared.
+   */
+  @Override
+  public Optional<Task> compile(Configuration taskConfig) {
+    return Optional.of(build(taskConfig));
+  }
+
+  private Task build(Configuration taskConfig) {
     Node rootNode = initGraphRootNode(taskConfig.getGraphNodeOptions());
     return new Task(taskConfig.getTaskName(), rootNode);
   }
@@ -73,7 +87,8 @@ public class ConfigurationTaskProvider implements TaskProvider {
     ActionNodeConfigOptions config = new ActionNodeConfigOptions(options.getNode().getConfig());
     Action action = actionProvider.get(config.getAction()).orElseThrow(
         () -> new GraphConfigurationException("No provider for action " + config.getAction()));
-    return new SingleNode(config.getAction(), toRxFunction(action), edges);
+    return new SingleNode(config.getAction(), toRxFunction(action), edges,
+        !actionProvider.isNonBlocking(config.getAction()));
   }
 
   private Node buildCompositeNode(GraphNodeOptions options, Map<String, Node> edges) {
@@ -82,7 +97,13 @@ public class ConfigurationTaskProvider implements TaskProvider {
     List<Node> nodes = config.getSubtasks().stream()
         .map(this::initGraphRootNode)
         .collect(Collectors.toList());
-    return new CompositeNode(getNodeId(), nodes, edges.get(SUCCESS_TRANSITION), edges.get(ERROR_TRANSITION));
+    // without the timeout edge, completed subtasks are merged and processing continues on success
+    String timeoutTransition = edges.containsKey(config.getTimeoutTransition())
+        ? config.getTimeoutTransition()
+        : SUCCESS_TRANSITION;
+    return new CompositeNode(getNodeId(), nodes, edges.get(SUCCESS_TRANSITION),
+        edges.get(ERROR_TRANSITION), config.getTimeout(), timeoutTransition,
+        edges.get(timeoutTransition));
   }
 
   private String getNodeId() {
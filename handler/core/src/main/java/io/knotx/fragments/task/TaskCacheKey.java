@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.task;
+
+import com.google.common.hash.Hashing;
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.FragmentEventContext;
+import io.knotx.fragments.task.options.TaskCacheOptions;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Builds task results cache key from the task name, the fragment body hash and the projection of
+ * the fragment configuration and request data defined in {@link TaskCacheOptions}.
+ */
+class TaskCacheKey implements Function<FragmentEventContext, String> {
+
+  private static final char SEPARATOR = '|';
+  private static final char LENGTH_SEPARATOR = ':';
+  private static final char ABSENT = '-';
+
+  private final String taskName;
+  private final List<String> configKeys;
+  private final List<String> params;
+  private final List<String> headers;
+
+  TaskCacheKey(String taskName, TaskCacheOptions options) {
+    this.taskName = taskName;
+    this.configKeys = options.getConfigKeys();
+    this.params = options.getParams();
+    this.headers = options.getHeaders();
+  }
+
+  @Override
+  public String apply(FragmentEventContext fec) {
+    Fragment fragment = fec.getFragmentEvent().getFragment();
+    ClientRequest clientRequest = fec.getClientRequest();
+    StringBuilder key = new StringBuilder();
+    appendPart(key, taskName);
+    appendPart(key, Hashing.murmur3_128()
+        .hashString(StringUtils.defaultString(fragment.getBody()), StandardCharsets.UTF_8));
+    if (!configKeys.isEmpty()) {
+      // the configuration is a copy, so it is read once per key
+      JsonObject configuration = fragment.getConfiguration();
+      configKeys.forEach(configKey -> appendPart(key, configuration.getValue(configKey)));
+    }
+    params.forEach(param -> appendPart(key, clientRequest.getParams().get(param)));
+    headers.forEach(header -> appendPart(key, clientRequest.getHeaders().get(header)));
+    return key.toString();
+  }
+
+  /**
+   * Appends the part prefixed with its length, so values containing the separator can not shift
+   * into the next part. An absent value is written as a marker without the length prefix.
+   */
+  private static void appendPart(StringBuilder key, Object value) {
+    if (key.length() > 0) {
+      key.append(SEPARATOR);
+    }
+    if (value == null) {
+      key.append(ABSENT);
+    } else {
+      String part = value.toString();
+      key.append(part.length()).append(LENGTH_SEPARATOR).append(part);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "TaskCacheKey{" +
+        "taskName='" + taskName + '\'' +
+        ", configKeys=" + configKeys +
+        ", params=" + params +
+        ", headers=" + headers +
+        '}';
+  }
+}
@@ -20,42 +20,55 @@ package io.knotx.fragments.task;
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.engine.FragmentEventContext;
 import io.knotx.fragments.engine.Task;
+import io.knotx.fragments.engine.TaskResultCache;
 import io.knotx.fragments.handler.action.ActionProvider;
 import io.knotx.fragments.task.exception.GraphConfigurationException;
 import io.knotx.fragments.task.exception.TaskNotFoundException;
+import io.knotx.fragments.task.options.TaskCacheOptions;
 import io.knotx.fragments.task.options.TaskOptions;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ServiceLoader;
 
+/**
+ * Creates {@link Task} for fragments. All tasks are compiled once, when the factory is created, so
+ * the graph of nodes (and its actions) is shared by all requests. Only tasks that can not be
+ * compiled upfront (see {@link TaskProvider#compile(Configuration)}) are instantiated per fragment.
+ */
 public class TaskFactory {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskFactory.class);
 
-  private String taskKey;
-  private Map<String, TaskProviderFactory> providersFactories;
-  private Map<String, TaskOptions> tasks;
-  private ActionProvider actionProvider;
+  private final String taskKey;
+  private final Map<String, TaskOptions> tasks;
+  private final Map<String, TaskProvider> providers;
+  private final Map<String, TaskResultCache> resultCaches;
+  private final Map<String, Task> compiledTasks;
 
   public TaskFactory(String taskKey, Map<String, TaskOptions> tasks,
       ActionProvider actionProvider) {
     this.taskKey = taskKey;
-    this.tasks = tasks;
-    this.actionProvider = actionProvider;
-    providersFactories = initProviders();
+    this.tasks = tasks == null ? Collections.emptyMap() : tasks;
+    this.providers = initTaskProviders(initProviders(), actionProvider);
+    this.resultCaches = initResultCaches();
+    this.compiledTasks = compileTasks();
   }
 
   public Optional<Task> newInstance(FragmentEventContext fragmentEventContext) {
     return Optional.of(fragmentEventContext.getFragmentEvent().getFragment())
-        .filter(this::hasTask)
         .map(this::getTaskName)
         .map(taskName -> {
-          TaskProvider factory = getProvider(taskName);
+          Task compiledTask = compiledTasks.get(taskName);
+          if (compiledTask != null) {
+            return compiledTask;
+          }
+          TaskProvider provider = getProvider(taskName);
           Configuration taskConfig = getTaskConfiguration(taskName);
-          return factory.newInstance(taskConfig, fragmentEventContext);
+          return withResultCache(provider.newInstance(taskConfig, fragmentEventContext));
         });
   }
 
@@ -63,24 +76,58 @@ public class TaskFactory {
     return fragment.getConfiguration().getString(taskKey);
   }
 
-  private boolean hasTask(Fragment fragment) {
-    return fragment.getConfiguration().containsKey(taskKey);
-  }
-
   private Configuration getTaskConfiguration(String taskName) {
     return new Configuration(taskName, tasks.get(taskName).getGraph());
   }
 
   private TaskProvider getProvider(String taskName) {
-    TaskOptions taskOptions = tasks.get(taskName);
-    if (taskOptions == null) {
+    TaskProvider provider = providers.get(taskName);
+    if (provider == null) {
       LOGGER.error("Could not find task [{}] in tasks [{}]", taskName, tasks);
       throw new TaskNotFoundException(taskName);
     }
-    String factoryName = taskOptions.getFactory();
-    return Optional.ofNullable(providersFactories.get(factoryName))
-        .map(f -> f.create(taskOptions.getConfig(), actionProvider))
-        .orElseThrow(() -> new GraphConfigurationException("Could not find task builder"));
+    return provider;
+  }
+
+  private Map<String, Task> compileTasks() {
+    Map<String, Task> result = new HashMap<>();
+    providers.forEach((taskName, provider) -> provider
+        .compile(getTaskConfiguration(taskName))
+        .ifPresent(task -> result.put(taskName, withResultCache(task))));
+    LOGGER.debug("Compiled tasks: {}", result.keySet());
+    return Collections.unmodifiableMap(result);
+  }
+
+  private Task withResultCache(Task task) {
+    TaskResultCache resultCache = resultCaches.get(task.getName());
+    return resultCache == null ? task
+        : new Task(task.getName(), task.getRootNode().orElse(null), resultCache);
+  }
+
+  private Map<String, TaskResultCache> initResultCaches() {
+    Map<String, TaskResultCache> result = new HashMap<>();
+    tasks.forEach((taskName, taskOptions) -> {
+      TaskCacheOptions cacheOptions = taskOptions.getCache();
+      if (cacheOptions != null) {
+        result.put(taskName, new TaskResultCache(new TaskCacheKey(taskName, cacheOptions),
+            cacheOptions.getTtl(), cacheOptions.getMaximumSize()));
+      }
+    });
+    return result;
+  }
+
+  private Map<String, TaskProvider> initTaskProviders(
+      Map<String, TaskProviderFactory> providersFactories, ActionProvider actionProvider) {
+    Map<String, TaskProvider> result = new HashMap<>();
+    tasks.forEach((taskName, taskOptions) -> {
+      String factoryName = taskOptions.getFactory();
+      TaskProvider provider = Optional.ofNullable(providersFactories.get(factoryName))
+          .map(f -> f.create(taskOptions.getConfig(), actionProvider))
+          .orElseThrow(() -> new GraphConfigurationException(
+              "Could not find task builder [" + factoryName + "] for task [" + taskName + "]"));
+      result.put(taskName, provider);
+    });
+    return result;
   }
 
   private Map<String, TaskProviderFactory> initProviders() {
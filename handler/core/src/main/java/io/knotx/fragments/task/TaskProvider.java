@@ -18,6 +18,7 @@ package io.knotx.fragments.task;
 import io.knotx.fragments.engine.FragmentEventContext;
 import io.knotx.fragments.engine.FragmentsEngine;
 import io.knotx.fragments.engine.Task;
+import java.util.Optional;
 
 /**
  * Produces {@link Task} based on graph configuration, Fragment data and request.
@@ -33,4 +34,17 @@ public interface TaskProvider {
    */
   Task newInstance(Configuration config, FragmentEventContext event);
 
+  /**
+   * Compiles Task once, when the handler starts. The compiled Task (including its graph of nodes)
+   * is shared by all fragments and requests, so it must not depend on Fragment data or request.
+   * Providers producing Tasks per fragment should return {@link Optional#empty()}, then {@link
+   * #newInstance(Configuration, FragmentEventContext)} is called for each fragment.
+   *
+   * @param config - task configuration
+   * @return compiled task or empty when task can not be compiled upfront
+   */
+  default Optional<Task> compile(Configuration config) {
+    return Optional.empty();
+  }
+
 }
@@ -35,16 +35,27 @@ import java.util.Objects;
 @DataObject(generateConverter = true)
 public class SubtasksNodeConfigOptions {
 
+  public static final String DEFAULT_TIMEOUT_TRANSITION = "_partial";
+
   private List<GraphNodeOptions> subtasks;
+  private long timeout;
+  private String timeoutTransition;
 
   public SubtasksNodeConfigOptions(List<GraphNodeOptions> subtasks) {
+    init();
     this.subtasks = subtasks;
   }
 
   public SubtasksNodeConfigOptions(JsonObject json) {
+    init();
     SubtasksNodeConfigOptionsConverter.fromJson(json, this);
   }
 
+  private void init() {
+    timeout = 0;
+    timeoutTransition = DEFAULT_TIMEOUT_TRANSITION;
+  }
+
   public JsonObject toJson() {
     JsonObject json = new JsonObject();
     SubtasksNodeConfigOptionsConverter.toJson(this, json);
@@ -67,6 +78,40 @@ public class SubtasksNodeConfigOptions {
     return this;
   }
 
+  public long getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Sets the maximum time in milliseconds to wait for subtasks. When it expires, unfinished
+   * subtasks are abandoned, results of completed ones are merged and the timeout transition is
+   * returned. The value {@code 0} (default) means no timeout.
+   *
+   * @param timeout subtasks timeout in milliseconds
+   * @return reference to this, so the API can be used fluently
+   */
+  public SubtasksNodeConfigOptions setTimeout(long timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  public String getTimeoutTransition() {
+    return timeoutTransition;
+  }
+
+  /**
+   * Sets the transition returned when the subtasks timeout expires. The default value is {@code
+   * _partial}. When the node has no edge for this transition, the {@code _success} transition is
+   * returned instead.
+   *
+   * @param timeoutTransition timeout transition
+   * @return reference to this, so the API can be used fluently
+   */
+  public SubtasksNodeConfigOptions setTimeoutTransition(String timeoutTransition) {
+    this.timeoutTransition = timeoutTransition;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -76,18 +121,22 @@ public class SubtasksNodeConfigOptions {
       return false;
     }
     SubtasksNodeConfigOptions that = (SubtasksNodeConfigOptions) o;
-    return Objects.equals(subtasks, that.subtasks);
+    return timeout == that.timeout &&
+        Objects.equals(subtasks, that.subtasks) &&
+        Objects.equals(timeoutTransition, that.timeoutTransition);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(subtasks);
+    return Objects.hash(subtasks, timeout, timeoutTransition);
   }
 
   @Override
   public String toString() {
     return "SubtasksNodeOptions{" +
         "subtasks=" + subtasks +
+        ", timeout=" + timeout +
+        ", timeoutTransition='" + timeoutTransition + '\'' +
         '}';
   }
 }
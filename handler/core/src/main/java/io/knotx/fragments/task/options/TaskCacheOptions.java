@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.task.options;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Task results cache options. Fragments processed by the same task, with the same body and the
+ * same values of the projected fragment configuration entries, request params and headers get the
+ * cached body and payload without processing the graph.
+ *
+ * <pre>
+ * tasks {
+ *   menu {
+ *     cache { //represented by TaskCacheOptions
+ *       ttl = 60000
+ *       params = [ category ]
+ *     }
+ *     graph { ... }
+ *   }
+ * }
+ * </pre>
+ */
+@DataObject(generateConverter = true)
+public class TaskCacheOptions {
+
+  public static final long DEFAULT_TTL = 60000;
+  public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+  private long ttl;
+  private long maximumSize;
+  private List<String> configKeys;
+  private List<String> params;
+  private List<String> headers;
+
+  public TaskCacheOptions() {
+    init();
+  }
+
+  public TaskCacheOptions(JsonObject json) {
+    init();
+    TaskCacheOptionsConverter.fromJson(json, this);
+  }
+
+  private void init() {
+    ttl = DEFAULT_TTL;
+    maximumSize = DEFAULT_MAXIMUM_SIZE;
+    configKeys = new ArrayList<>();
+    params = new ArrayList<>();
+    headers = new ArrayList<>();
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    TaskCacheOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  public long getTtl() {
+    return ttl;
+  }
+
+  /**
+   * Sets the time in milliseconds after which cached results expire. The default value is
+   * <code>60000</code>.
+   *
+   * @param ttl time to live in milliseconds
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskCacheOptions setTtl(long ttl) {
+    this.ttl = ttl;
+    return this;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Sets the maximum number of cached results. The default value is <code>1000</code>.
+   *
+   * @param maximumSize maximum number of cached results
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskCacheOptions setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  public List<String> getConfigKeys() {
+    return configKeys;
+  }
+
+  /**
+   * Sets the fragment configuration entries that are part of the cache key.
+   *
+   * @param configKeys fragment configuration keys
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskCacheOptions setConfigKeys(List<String> configKeys) {
+    this.configKeys = configKeys;
+    return this;
+  }
+
+  public List<String> getParams() {
+    return params;
+  }
+
+  /**
+   * Sets the request params that are part of the cache key.
+   *
+   * @param params request param names
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskCacheOptions setParams(List<String> params) {
+    this.params = params;
+    return this;
+  }
+
+  public List<String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Sets the request headers that are part of the cache key.
+   *
+   * @param headers request header names
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskCacheOptions setHeaders(List<String> headers) {
+    this.headers = headers;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TaskCacheOptions that = (TaskCacheOptions) o;
+    return ttl == that.ttl &&
+        maximumSize == that.maximumSize &&
+        Objects.equals(configKeys, that.configKeys) &&
+        Objects.equals(params, that.params) &&
+        Objects.equals(headers, that.headers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(ttl, maximumSize, configKeys, params, headers);
+  }
+
+  @Override
+  public String toString() {
+    return "TaskCacheOptions{" +
+        "ttl=" + ttl +
+        ", maximumSize=" + maximumSize +
+        ", configKeys=" + configKeys +
+        ", params=" + params +
+        ", headers=" + headers +
+        '}';
+  }
+}
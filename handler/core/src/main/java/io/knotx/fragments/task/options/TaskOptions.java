@@ -30,6 +30,7 @@ public class TaskOptions {
   private String factory;
   private JsonObject config;
   private GraphNodeOptions graph;
+  private TaskCacheOptions cache;
 
   public TaskOptions(JsonObject json) {
     init();
@@ -105,6 +106,27 @@ public class TaskOptions {
     return this;
   }
 
+  /**
+   * Gets task results cache options.
+   *
+   * @return cache options or {@code null} when results are not cached
+   */
+  public TaskCacheOptions getCache() {
+    return cache;
+  }
+
+  /**
+   * Sets task results cache. Fragments with the same cache key get cached results without
+   * processing the graph. Results are not cached by default.
+   *
+   * @param cache - task results cache options
+   * @return reference to this, so the API can be used fluently
+   */
+  public TaskOptions setCache(TaskCacheOptions cache) {
+    this.cache = cache;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -116,12 +138,13 @@ public class TaskOptions {
     TaskOptions that = (TaskOptions) o;
     return Objects.equals(factory, that.factory) &&
         Objects.equals(config, that.config) &&
-        Objects.equals(graph, that.graph);
+        Objects.equals(graph, that.graph) &&
+        Objects.equals(cache, that.cache);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(factory, config, graph);
+    return Objects.hash(factory, config, graph, cache);
   }
 
   @Override
@@ -130,6 +153,7 @@ public class TaskOptions {
         "factory='" + factory + '\'' +
         ", config=" + config +
         ", graph=" + graph +
+        ", cache=" + cache +
         '}';
   }
 }
@@ -31,6 +31,7 @@ import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.handler.api.Cacheable;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.NonBlocking;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -205,6 +206,28 @@ class ActionProviderTest {
         .create(eq(PROXY_ALIAS), any(), eq(vertx), eq(expectedOperationSecond));
   }
 
+  @Test
+  @DisplayName("Expect blocking action when action references itself via doAction.")
+  void isNonBlockingWithCycle(Vertx vertx) {
+    // given
+    Map<String, ActionOptions> proxies = ImmutableMap.of(
+        PROXY_ALIAS,
+        new ActionOptions(PROXY_FACTORY_NAME, new JsonObject(), PROXY_ALIAS_SECOND),
+        PROXY_ALIAS_SECOND,
+        new ActionOptions(PROXY_FACTORY_NAME, new JsonObject(), PROXY_ALIAS)
+    );
+    List<ActionFactory> factories = Collections
+        .singletonList(new TestNonBlockingOperationFactory());
+
+    ActionProvider tested = new ActionProvider(proxies, factories::iterator, vertx);
+
+    // when
+    boolean nonBlocking = tested.isNonBlocking(PROXY_ALIAS);
+
+    // then
+    assertFalse(nonBlocking);
+  }
+
   class TestOperationFactory implements ActionFactory {
 
     @Override
@@ -226,6 +249,22 @@ class ActionProviderTest {
     }
   }
 
+  @NonBlocking
+  class TestNonBlockingOperationFactory implements ActionFactory {
+
+    @Override
+    public String getName() {
+      return PROXY_FACTORY_NAME;
+    }
+
+    @Override
+    public Action create(String alias, JsonObject config, Vertx vertx,
+        Action doAction) {
+      return (fragmentContext, resultHandler) -> {
+      };
+    }
+  }
+
   @Cacheable
   class TestCacheableOperationFactory implements ActionFactory {
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.BatchKnot;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Checkpoint;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.serviceproxy.ServiceBinder;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class BatchKnotFactoryTest {
+
+  private static final String ADDRESS = "knotx.knot.batch";
+
+  @Test
+  @DisplayName("Expect invocations from one event loop tick sent in one batch.")
+  void expectSingleBatch(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger batches = new AtomicInteger();
+    register(vertx, batches);
+    Action tested = new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, null);
+    Checkpoint replies = testContext.checkpoint(3);
+    ClientRequest request = new ClientRequest();
+
+    // when
+    vertx.runOnContext(v -> {
+      for (int i = 0; i < 3; i++) {
+        String body = "body-" + i;
+        tested.apply(fragmentContext(body, request), testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+            Assertions.assertEquals(body + "-processed", result.getFragment().getBody());
+            Assertions.assertEquals(1, batches.get());
+          });
+          replies.flag();
+        }));
+      }
+    });
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect batch sent when it reaches the max size.")
+  void expectBatchesLimitedBySize(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger batches = new AtomicInteger();
+    register(vertx, batches);
+    Action tested = new BatchKnotFactory().create("batch", new JsonObject()
+        .put("address", ADDRESS)
+        .put("maxBatchSize", 2), vertx, null);
+    Checkpoint replies = testContext.checkpoint(3);
+    ClientRequest request = new ClientRequest();
+
+    // when
+    vertx.runOnContext(v -> {
+      for (int i = 0; i < 3; i++) {
+        tested.apply(fragmentContext("body", request),
+            testContext.succeeding(result -> replies.flag()));
+      }
+    });
+
+    // then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    Assertions.assertEquals(2, batches.get());
+  }
+
+  @Test
+  @DisplayName("Expect replies handled on the contexts of the invocations.")
+  void expectRepliesOnInvocationContexts(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger batches = new AtomicInteger();
+    register(vertx, batches);
+    Action tested = new BatchKnotFactory().create("batch", new JsonObject()
+        .put("address", ADDRESS)
+        .put("window", 100)
+        .put("acrossRequests", true), vertx, null);
+    Checkpoint replies = testContext.checkpoint(2);
+
+    // when
+    for (int i = 0; i < 2; i++) {
+      Context context = vertx.getOrCreateContext();
+      context.runOnContext(v -> tested.apply(fragmentContext("body"),
+          testContext.succeeding(result -> {
+            // then
+            testContext.verify(() -> {
+              Assertions.assertSame(context, Vertx.currentContext());
+              Assertions.assertEquals(1, batches.get());
+            });
+            replies.flag();
+          })));
+    }
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect invocations of different requests sent in separate batches by default.")
+  void expectBatchPerRequest(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger batches = new AtomicInteger();
+    register(vertx, batches);
+    Action tested = new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, null);
+    Checkpoint replies = testContext.checkpoint(2);
+
+    // when
+    vertx.runOnContext(v -> {
+      for (int i = 0; i < 2; i++) {
+        tested.apply(fragmentContext("body"), testContext.succeeding(result -> replies.flag()));
+      }
+    });
+
+    // then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    Assertions.assertEquals(2, batches.get());
+  }
+
+  @Test
+  @DisplayName("Expect all fragments of the batch failed when the batch reply fails.")
+  void expectFailedBatch(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    register(vertx, (fragmentContexts, result) -> Future
+        .<List<FragmentResult>>failedFuture(new IllegalStateException("batch failed"))
+        .setHandler(result));
+    Action tested = new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, null);
+    Checkpoint failures = testContext.checkpoint(2);
+    ClientRequest request = new ClientRequest();
+
+    // when
+    vertx.runOnContext(v -> {
+      for (int i = 0; i < 2; i++) {
+        tested.apply(fragmentContext("body", request), testContext.failing(error -> {
+          // then
+          testContext.verify(() -> Assertions.assertTrue(error instanceof ReplyException));
+          failures.flag();
+        }));
+      }
+    });
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect all fragments failed when the reply has a different number of results.")
+  void expectFailedBatchWhenResultsMissing(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    register(vertx, (fragmentContexts, result) -> Future
+        .succeededFuture(Collections.singletonList(new FragmentResult(
+            fragmentContexts.get(0).getFragment(), SUCCESS_TRANSITION)))
+        .setHandler(result));
+    Action tested = new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, null);
+    Checkpoint failures = testContext.checkpoint(2);
+    ClientRequest request = new ClientRequest();
+
+    // when
+    vertx.runOnContext(v -> {
+      for (int i = 0; i < 2; i++) {
+        tested.apply(fragmentContext("body", request), testContext.failing(error -> {
+          // then
+          testContext.verify(() -> Assertions.assertTrue(error instanceof IllegalStateException));
+          failures.flag();
+        }));
+      }
+    });
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect fragment with expired deadline failed with timeout and not sent.")
+  void expectExpiredFragmentNotSent(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    register(vertx, (fragmentContexts, result) -> {
+      batchSizes.add(fragmentContexts.size());
+      Future.succeededFuture(fragmentContexts.stream()
+          .map(fragmentContext -> new FragmentResult(fragmentContext.getFragment(),
+              SUCCESS_TRANSITION))
+          .collect(Collectors.toList()))
+          .setHandler(result);
+    });
+    Action tested = new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, null);
+    Checkpoint replies = testContext.checkpoint(2);
+    ClientRequest request = new ClientRequest();
+    FragmentContext expired = new FragmentContext(
+        new Fragment("type", new JsonObject(), "expired"), request,
+        System.currentTimeMillis() - 1);
+
+    // when
+    vertx.runOnContext(v -> {
+      tested.apply(expired, testContext.failing(error -> {
+        // then
+        testContext.verify(() -> {
+          Assertions.assertTrue(error instanceof ReplyException);
+          Assertions.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) error).failureType());
+        });
+        replies.flag();
+      }));
+      tested.apply(fragmentContext("body", request),
+          testContext.succeeding(result -> replies.flag()));
+    });
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    Assertions.assertEquals(Collections.singletonList(1), batchSizes);
+  }
+
+  @Test
+  @DisplayName("Expect exception when address is not configured.")
+  void expectExceptionWhenAddressMissing(Vertx vertx) {
+    // when, then
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", " "), vertx, null));
+  }
+
+  @Test
+  @DisplayName("Expect exception when doAction is defined.")
+  void expectExceptionWhenDoActionDefined(Vertx vertx) {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+    };
+
+    // when, then
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchKnotFactory()
+        .create("batch", new JsonObject().put("address", ADDRESS), vertx, doAction));
+  }
+
+  @Test
+  @DisplayName("Expect knot failures returned as error transitions by the adapted knot.")
+  void expectErrorTransitionFromAdaptedKnot(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    BatchKnot tested = BatchKnot.fromKnot((fragmentContext, resultHandler) ->
+        Future.<FragmentResult>failedFuture(new IllegalStateException()).setHandler(resultHandler));
+
+    // when
+    tested.applyBatch(Collections.singletonList(fragmentContext("body")),
+        testContext.succeeding(results -> {
+          // then
+          testContext.verify(() -> Assertions.assertEquals(FragmentResult.ERROR_TRANSITION,
+              results.get(0).getTransition()));
+          testContext.completeNow();
+        }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private static void register(Vertx vertx, AtomicInteger batches) {
+    register(vertx, (fragmentContexts, result) -> {
+      batches.incrementAndGet();
+      List<FragmentResult> results = fragmentContexts.stream()
+          .map(FragmentContext::getFragment)
+          .map(fragment -> new FragmentResult(
+              fragment.setBody(fragment.getBody() + "-processed"), SUCCESS_TRANSITION))
+          .collect(Collectors.toList());
+      Future.succeededFuture(results).setHandler(result);
+    });
+  }
+
+  private static void register(Vertx vertx, BatchKnot knot) {
+    new ServiceBinder(vertx).setAddress(ADDRESS).register(BatchKnot.class, knot);
+  }
+
+  private static FragmentContext fragmentContext(String body) {
+    return fragmentContext(body, new ClientRequest());
+  }
+
+  private static FragmentContext fragmentContext(String body, ClientRequest request) {
+    return new FragmentContext(new Fragment("type", new JsonObject(), body), request);
+  }
+}
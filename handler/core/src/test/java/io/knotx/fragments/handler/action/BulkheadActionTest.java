@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.BulkheadAction.Bulkhead;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class BulkheadActionTest {
+
+  private static final Fragment FRAGMENT = new Fragment("type", new JsonObject(), "expectedBody");
+  private static final String REJECTION_TRANSITION = "_rejected";
+
+  @Test
+  @DisplayName("Expect doAction is invoked on bulkhead worker thread.")
+  void expectWorkerThread(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Bulkhead bulkhead = BulkheadAction.bulkhead(vertx, "worker", new BulkheadOptions());
+    BulkheadAction tested = new BulkheadAction(bulkhead,
+        (fragmentContext, resultHandler) -> Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(),
+                Context.isOnWorkerThread() ? SUCCESS_TRANSITION : "_not_worker"))
+            .setHandler(resultHandler));
+
+    // when
+    tested.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+        testContext.succeeding(result -> {
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+            Assertions.assertEquals(0, bulkhead.getInFlight());
+          });
+          testContext.completeNow();
+        }));
+
+    //then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect rejection transition when bulkhead pool and queue are full.")
+  void expectRejection(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    BulkheadOptions options = new BulkheadOptions()
+        .setPoolSize(1)
+        .setMaxQueueSize(0)
+        .setRejectionTransition(REJECTION_TRANSITION);
+    BulkheadAction tested = new BulkheadAction(BulkheadAction.bulkhead(vertx, "full", options),
+        (fragmentContext, resultHandler) -> {
+          // never ends
+        });
+    FragmentContext fragmentContext = new FragmentContext(FRAGMENT, new ClientRequest());
+    tested.apply(fragmentContext, result -> testContext.failNow(new IllegalStateException()));
+
+    // when
+    tested.apply(fragmentContext,
+        testContext.succeeding(result -> {
+          testContext.verify(
+              () -> Assertions.assertEquals(REJECTION_TRANSITION, result.getTransition()));
+          testContext.completeNow();
+        }));
+
+    //then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect the same bulkhead for the same name.")
+  void expectSharedBulkhead(Vertx vertx) {
+    // when
+    Bulkhead first = BulkheadAction.bulkhead(vertx, "shared", new BulkheadOptions());
+    Bulkhead second = BulkheadAction.bulkhead(vertx, "shared", new BulkheadOptions());
+
+    // then
+    Assertions.assertSame(first, second);
+  }
+
+  @Test
+  @DisplayName("Expect the first bulkhead when the same name is configured differently.")
+  void expectFirstBulkheadForConflictingConfiguration(Vertx vertx) {
+    // when
+    Bulkhead first = BulkheadAction.bulkhead(vertx, "conflicting", new BulkheadOptions());
+    Bulkhead second = BulkheadAction.bulkhead(vertx, "conflicting",
+        new BulkheadOptions().setPoolSize(1));
+
+    // then
+    Assertions.assertSame(first, second);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CacheSnapshotTest {
+
+  private static final long MAX_AGE = 10000;
+
+  private Path path;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    path = Files.createTempFile("cache", ".snapshot");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  @DisplayName("Expect entry with write time restored from the snapshot.")
+  void expectEntryRestored() throws Exception {
+    // given
+    long writeTime = System.currentTimeMillis();
+    new CacheSnapshot(path.toString()).write(Arrays.asList(
+        new CacheSnapshot.Entry("first", bytes("first value"), writeTime),
+        new CacheSnapshot.Entry("second", bytes("second value"), writeTime)));
+
+    // when
+    CacheSnapshot tested = new CacheSnapshot(path.toString());
+    tested.load(MAX_AGE);
+    CacheSnapshot.Entry entry = tested.take("second");
+
+    // then
+    assertNotNull(entry);
+    assertArrayEquals(bytes("second value"), entry.getValue());
+    assertEquals(writeTime, entry.getWriteTime());
+  }
+
+  @Test
+  @DisplayName("Expect entry taken from the snapshot only once.")
+  void expectEntryTakenOnce() throws Exception {
+    // given
+    new CacheSnapshot(path.toString()).write(Arrays.asList(
+        new CacheSnapshot.Entry("key", bytes("value"), System.currentTimeMillis())));
+    CacheSnapshot tested = new CacheSnapshot(path.toString());
+    tested.load(MAX_AGE);
+
+    // when
+    tested.take("key");
+
+    // then
+    assertNull(tested.take("key"));
+  }
+
+  @Test
+  @DisplayName("Expect entry never taken kept when the snapshot is written again.")
+  void expectUntakenEntryWrittenAgain() throws Exception {
+    // given
+    long writeTime = System.currentTimeMillis();
+    new CacheSnapshot(path.toString()).write(Arrays.asList(
+        new CacheSnapshot.Entry("taken", bytes("taken value"), writeTime),
+        new CacheSnapshot.Entry("untaken", bytes("untaken value"), writeTime)));
+    CacheSnapshot snapshot = new CacheSnapshot(path.toString());
+    snapshot.load(MAX_AGE);
+    CacheSnapshot.Entry taken = snapshot.take("taken");
+
+    // when
+    snapshot.write(Collections.singletonList(taken));
+    CacheSnapshot tested = new CacheSnapshot(path.toString());
+    tested.load(MAX_AGE);
+
+    // then
+    assertNotNull(tested.take("taken"));
+    CacheSnapshot.Entry entry = tested.take("untaken");
+    assertNotNull(entry);
+    assertArrayEquals(bytes("untaken value"), entry.getValue());
+    assertEquals(writeTime, entry.getWriteTime());
+  }
+
+  @Test
+  @DisplayName("Expect entries older than max age not restored.")
+  void expectExpiredEntryNotRestored() throws Exception {
+    // given
+    new CacheSnapshot(path.toString()).write(Arrays.asList(
+        new CacheSnapshot.Entry("key", bytes("value"), System.currentTimeMillis() - 2 * MAX_AGE)));
+
+    // when
+    CacheSnapshot tested = new CacheSnapshot(path.toString());
+    tested.load(MAX_AGE);
+
+    // then
+    assertNull(tested.take("key"));
+  }
+
+  @Test
+  @DisplayName("Expect empty snapshot when file has unknown format.")
+  void expectUnknownFormatIgnored() throws Exception {
+    // given
+    Files.write(path, bytes("not a snapshot"));
+
+    // when
+    CacheSnapshot tested = new CacheSnapshot(path.toString());
+    tested.load(MAX_AGE);
+
+    // then
+    assertNull(tested.take("key"));
+  }
+
+  @Test
+  @DisplayName("Expect temporary file removed when snapshot can not be replaced.")
+  void expectTempFileRemovedWhenWriteFails() throws Exception {
+    // given
+    Path directory = Files.createTempDirectory("cache");
+    Path target = Files.createDirectory(directory.resolve("cache.snapshot"));
+    Path child = Files.createFile(target.resolve("child"));
+    CacheSnapshot tested = new CacheSnapshot(target.toString());
+
+    try {
+      // when
+      assertThrows(IOException.class, () -> tested.write(Collections.singletonList(
+          new CacheSnapshot.Entry("key", bytes("value"), System.currentTimeMillis()))));
+
+      // then
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(Collections.singletonList(target), files.collect(Collectors.toList()));
+      }
+    } finally {
+      Files.deleteIfExists(child);
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -22,6 +22,7 @@ import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANS
 
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.action.CircuitBreakerActionFactory.CircuitBreakerAction;
+import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.server.api.context.ClientRequest;
@@ -36,7 +37,9 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.rxjava.core.Future;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -134,6 +137,77 @@ class CircuitBreakerActionTest {
     }
   }
 
+  @Test
+  @DisplayName("Expect fallback transition from the other action when the shared circuit breaker is open.")
+  void expectSharedCircuitBreaker(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      invocations.incrementAndGet();
+      Future.<FragmentResult>failedFuture(new IllegalStateException()).setHandler(resultHandler);
+    };
+    JsonObject config = new JsonObject()
+        .put("circuitBreakerName", "shared-" + UUID.randomUUID())
+        .put("circuitBreakerOptions", new JsonObject().put("maxFailures", 1));
+    Action first = new CircuitBreakerActionFactory().create("first", config, vertx, doAction);
+    Action second = new CircuitBreakerActionFactory().create("second", config, vertx, doAction);
+
+    // when
+    first.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+        firstResult -> second.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+            testContext.succeeding(result -> {
+              // then
+              testContext.verify(() -> {
+                Assertions.assertEquals(FALLBACK_TRANSITION, result.getTransition());
+                Assertions.assertEquals(1, invocations.get());
+              });
+              testContext.completeNow();
+            })));
+
+    //then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect fallback transition when slow calls rate exceeds the threshold.")
+  void expectFallbackWhenSlowCallsRateExceeded(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      invocations.incrementAndGet();
+      vertx.setTimer(100, l -> apply(fragmentContext, resultHandler));
+    };
+    JsonObject config = new JsonObject()
+        .put("circuitBreakerName", "slow-" + UUID.randomUUID())
+        .put("slowCalls", new JsonObject()
+            .put("duration", 50)
+            .put("minimumCalls", 1));
+    Action tested = new CircuitBreakerActionFactory().create("slow", config, vertx, doAction);
+
+    // when
+    tested.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+        slowResult -> tested.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+            testContext.succeeding(result -> {
+              // then
+              testContext.verify(() -> {
+                Assertions.assertEquals(SUCCESS_TRANSITION, slowResult.result().getTransition());
+                Assertions.assertEquals(FALLBACK_TRANSITION, result.getTransition());
+                Assertions.assertEquals(1, invocations.get());
+              });
+              testContext.completeNow();
+            })));
+
+    //then
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
   private static void apply(FragmentContext fragmentContext,
       Handler<AsyncResult<FragmentResult>> resultHandler) {
     Future.succeededFuture(new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.action.ConcurrencyLimitActionFactory.OVERLOAD_TRANSITION;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.ConcurrencyLimitActionFactory.AdaptiveLimit;
+import io.knotx.fragments.handler.action.ConcurrencyLimitActionFactory.ConcurrencyLimitAction;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class ConcurrencyLimitActionTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  @DisplayName("Expect overload transition without doAction invocation when limit is reached.")
+  void expectOverload(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    ConcurrencyLimitAction tested = new ConcurrencyLimitAction(
+        new AdaptiveLimit(1, 1, 10, 0.9, 2.0, 10),
+        (fragmentContext, resultHandler) -> invocations.incrementAndGet(),
+        OVERLOAD_TRANSITION);
+    tested.apply(fragmentContext(), result -> testContext.failNow(new IllegalStateException()));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      // then
+      testContext.verify(() -> {
+        Assertions.assertEquals(OVERLOAD_TRANSITION, result.getTransition());
+        Assertions.assertEquals(1, invocations.get());
+      });
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect doAction result and released limit when doAction replies.")
+  void expectResult(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    JsonObject config = new JsonObject()
+        .put("name", "limit-" + UUID.randomUUID())
+        .put("initialLimit", 1);
+    Action doAction = (fragmentContext, resultHandler) -> Future.succeededFuture(
+        new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))
+        .setHandler(resultHandler);
+    Action tested = new ConcurrencyLimitActionFactory().create("limit", config, vertx, doAction);
+
+    // when
+    tested.apply(fragmentContext(), first -> tested.apply(fragmentContext(),
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, first.result().getTransition());
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+          });
+          testContext.completeNow();
+        })));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect limit increases only while calls are fast and the limit is used in half.")
+  void expectAdditiveIncrease() {
+    // given
+    AdaptiveLimit tested = new AdaptiveLimit(2, 1, 10, 0.5, 2.0, 10);
+    Assertions.assertTrue(tested.acquire());
+    Assertions.assertTrue(tested.acquire());
+    Assertions.assertFalse(tested.acquire());
+
+    // when
+    tested.release(FAST, true);
+    tested.release(FAST, true);
+    tested.acquire();
+    tested.release(FAST, true);
+
+    // then
+    Assertions.assertEquals(3, tested.getLimit());
+    Assertions.assertEquals(0, tested.getInFlight());
+  }
+
+  @Test
+  @DisplayName("Expect limit decreases when a call is slower than the tolerance.")
+  void expectMultiplicativeDecreaseOnLatency() {
+    // given
+    AdaptiveLimit tested = new AdaptiveLimit(8, 1, 10, 0.5, 2.0, 10);
+    tested.acquire();
+    tested.release(FAST, true);
+
+    // when
+    tested.acquire();
+    tested.release(SLOW, true);
+
+    // then
+    Assertions.assertEquals(4, tested.getLimit());
+  }
+
+  @Test
+  @DisplayName("Expect limit decreases when a call fails and never drops below the minimum.")
+  void expectMultiplicativeDecreaseOnFailure() {
+    // given
+    AdaptiveLimit tested = new AdaptiveLimit(4, 2, 10, 0.5, 2.0, 10);
+
+    // when
+    for (int i = 0; i < 3; i++) {
+      tested.acquire();
+      tested.release(FAST, false);
+    }
+
+    // then
+    Assertions.assertEquals(2, tested.getLimit());
+  }
+
+  private static FragmentContext fragmentContext() {
+    return new FragmentContext(new Fragment("type", new JsonObject(), "body"),
+        new ClientRequest());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.HedgeActionFactory.HedgeAction;
+import io.knotx.fragments.handler.action.HedgeActionFactory.LatencyWindow;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class HedgeActionTest {
+
+  private static final int HEDGE_DELAY_IN_MS = 50;
+  private static final int SLOW_REPLY_IN_MS = 2000;
+
+  @Test
+  @DisplayName("Expect no hedge when doAction replies on time.")
+  void expectNoHedge(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    HedgeAction tested = new HedgeAction(vertx,
+        (fragmentContext, resultHandler) -> {
+          invocations.incrementAndGet();
+          Future.succeededFuture(
+              new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))
+              .setHandler(resultHandler);
+        }, delay(), new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      vertx.setTimer(2 * HEDGE_DELAY_IN_MS, id -> {
+        // then
+        testContext.verify(() -> Assertions.assertEquals(1, invocations.get()));
+        testContext.completeNow();
+      });
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect hedge reply when doAction does not reply within the hedge delay.")
+  void expectHedgeWins(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    long start = System.currentTimeMillis();
+    HedgeAction tested = new HedgeAction(vertx, slowFirstInvocation(vertx), delay(),
+        new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      // then
+      testContext.verify(() -> {
+        Assertions.assertEquals("hedge", result.getFragment().getBody());
+        Assertions.assertTrue(System.currentTimeMillis() - start < SLOW_REPLY_IN_MS);
+      });
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect no hedge when the hedge budget is exhausted.")
+  void expectBudgetLimitsHedges(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    HedgeAction tested = new HedgeAction(vertx, slowFirstInvocation(vertx), delay(),
+        new CallBudget(0.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      // then
+      testContext.verify(() -> Assertions.assertEquals("primary", result.getFragment().getBody()));
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect hedge delay equal to the observed latency percentile.")
+  void expectPercentileDelay() {
+    // given
+    LatencyWindow tested = new LatencyWindow(HEDGE_DELAY_IN_MS, 95, 100);
+
+    // when
+    for (int latency = 1; latency <= 100; latency++) {
+      tested.record(latency);
+    }
+
+    // then
+    Assertions.assertEquals(95, tested.delay());
+  }
+
+  private static Action slowFirstInvocation(Vertx vertx) {
+    AtomicInteger invocations = new AtomicInteger();
+    return (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      if (invocations.getAndIncrement() == 0) {
+        vertx.setTimer(SLOW_REPLY_IN_MS, id -> Future.succeededFuture(
+            new FragmentResult(fragment.setBody("primary"), SUCCESS_TRANSITION))
+            .setHandler(resultHandler));
+      } else {
+        Future.succeededFuture(new FragmentResult(fragment.setBody("hedge"), SUCCESS_TRANSITION))
+            .setHandler(resultHandler);
+      }
+    };
+  }
+
+  private static LatencyWindow delay() {
+    return new LatencyWindow(HEDGE_DELAY_IN_MS, 0, 100);
+  }
+
+  private static FragmentContext fragmentContext() {
+    return new FragmentContext(new Fragment("type", new JsonObject(), "body"),
+        new ClientRequest());
+  }
+}
@@ -16,21 +16,37 @@
 package io.knotx.fragments.handler.action;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.cache.RemovalCause;
 import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.InMemoryCacheActionFactory.Storage;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.junit5.KnotxExtension;
 import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.reactivex.core.MultiMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -42,6 +58,7 @@ class InMemoryCacheActionFactoryTest {
   private static final String EXPECTED_PAYLOAD_DATA = "some content";
   private static final String ACTION_ALIAS = "action";
   private static final String PAYLOAD_KEY = "product";
+  private static final long SHORT_TTL = 10;
 
   private static final JsonObject ACTION_CONFIG = new JsonObject().put("payloadKey", PAYLOAD_KEY)
       .put("cacheKey", "cProduct");
@@ -316,6 +333,622 @@ class InMemoryCacheActionFactoryTest {
     }
   }
 
+  @DisplayName("doAction invoked once when concurrent requests miss the same cache key.")
+  @Test
+  void callDoActionOnceForConcurrentMisses(VertxTestContext testContext) throws Throwable {
+    // given
+    JsonObject expectedPayloadValue = new JsonObject().put("someKey", "someValue");
+    AtomicInteger invocations = new AtomicInteger();
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      invocations.incrementAndGet();
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, expectedPayloadValue);
+      pending.add(result -> resultHandler
+          .handle(Future.succeededFuture(
+              new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))));
+    };
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, ACTION_CONFIG, null, doAction);
+    Checkpoint checkpoint = testContext.checkpoint(2);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        result -> verifyPayload(testContext, checkpoint, result, expectedPayloadValue));
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> verifyPayload(testContext, checkpoint, result, expectedPayloadValue));
+    pending.forEach(handler -> handler.handle(null));
+
+    // then
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    assertEquals(1, invocations.get());
+  }
+
+  @DisplayName("Failed result for all waiters when coalesced doAction throws an exception.")
+  @Test
+  void callDoActionWithErrorForConcurrentMisses(VertxTestContext testContext) throws Throwable {
+    // given
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> pending.add(result -> resultHandler
+        .handle(Future.failedFuture(new IllegalStateException())));
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, ACTION_CONFIG, null, doAction);
+    Checkpoint checkpoint = testContext.checkpoint(2);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        result -> {
+          testContext.verify(() -> assertTrue(result.failed()));
+          checkpoint.flag();
+        });
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> {
+          testContext.verify(() -> assertTrue(result.failed()));
+          checkpoint.flag();
+        });
+    pending.forEach(handler -> handler.handle(null));
+
+    // then
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    assertEquals(1, pending.size());
+  }
+
+  @DisplayName("doAction invoked for each request when the waiters limit is reached.")
+  @Test
+  void callDoActionWhenWaitersLimitReached(VertxTestContext testContext) throws Throwable {
+    // given
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> pending.add(result -> resultHandler
+        .handle(Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(), FragmentResult.SUCCESS_TRANSITION))));
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, ACTION_CONFIG.copy().put("maxWaiters", 0), null, doAction);
+    Checkpoint checkpoint = testContext.checkpoint(2);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        result -> checkpoint.flag());
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> checkpoint.flag());
+    new ArrayList<>(pending).forEach(handler -> handler.handle(null));
+
+    // then
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+    assertEquals(2, pending.size());
+  }
+
+  @DisplayName("Stale value served and doAction invoked in background when value is older than ttl.")
+  @Test
+  void callDoActionInBackgroundWhenStale(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, "value " + invocations.incrementAndGet());
+      pending.add(result -> resultHandler.handle(Future.succeededFuture(
+          new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))));
+    };
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, staleConfig("staleWhileRevalidate"), null, doAction);
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+    pending.remove(0).handle(null);
+    Thread.sleep(2 * SHORT_TTL);
+
+    // when
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> {
+          // then
+          testContext.verify(() -> {
+            assertEquals("value 1",
+                result.result().getFragment().getPayload().getMap().get(PAYLOAD_KEY));
+            assertEquals(2, invocations.get());
+          });
+          testContext.completeNow();
+        });
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Stale value served when doAction fails and value is in the stale-if-error window.")
+  @Test
+  void callDoActionWithErrorWhenStale(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      if (invocations.getAndIncrement() > 0) {
+        Future.<FragmentResult>failedFuture(new IllegalStateException())
+            .setHandler(resultHandler);
+      } else {
+        Fragment fragment = fragmentContext.getFragment();
+        fragment.appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+        Future.succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+            .setHandler(resultHandler);
+      }
+    };
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, staleConfig("staleIfError"), null, doAction);
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+    Thread.sleep(2 * SHORT_TTL);
+
+    // when
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> {
+          // then
+          testContext.verify(() -> {
+            assertTrue(result.succeeded());
+            assertEquals(FragmentResult.SUCCESS_TRANSITION, result.result().getTransition());
+            assertEquals(EXPECTED_PAYLOAD_DATA,
+                result.result().getFragment().getPayload().getMap().get(PAYLOAD_KEY));
+            assertEquals(2, invocations.get());
+          });
+          testContext.completeNow();
+        });
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cached value not shared between requests when serialized storage is used.")
+  @Test
+  void callActionWithSerializedStorage(VertxTestContext testContext) throws Throwable {
+    verifyStorageCopiesValue("serialized", testContext);
+  }
+
+  @DisplayName("Cached value not shared between requests when off-heap storage is used.")
+  @Test
+  void callActionWithOffHeapStorage(VertxTestContext testContext) throws Throwable {
+    verifyStorageCopiesValue("off-heap", testContext);
+  }
+
+  private void verifyStorageCopiesValue(String storage, VertxTestContext testContext)
+      throws Throwable {
+    // given
+    JsonObject expectedPayloadValue = new JsonObject().put("someKey", "someValue");
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, expectedPayloadValue.copy());
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject()
+            .put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "product")
+            .put("cache", new JsonObject()
+                .put("storage", storage)
+                .put("maximumWeight", 1024)), null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> {
+          firstResult.result().getFragment().getPayload().getJsonObject(PAYLOAD_KEY)
+              .put("modifiedKey", "modifiedValue");
+          tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+              secondResult -> {
+                // then
+                testContext.verify(() -> assertEquals(expectedPayloadValue,
+                    secondResult.result().getFragment().getPayload().getJsonObject(PAYLOAD_KEY)));
+                testContext.completeNow();
+              });
+        });
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Exception when maximumWeight is configured for object storage.")
+  @Test
+  void createActionWithWeightAndObjectStorage() {
+    // given
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("cache", new JsonObject().put("maximumWeight", 1024));
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, config, null, (fragmentContext, resultHandler) -> {
+        }));
+  }
+
+  @DisplayName("doAction invoked once when actions share the cache region.")
+  @Test
+  void callDoActionOnceForSharedCacheRegion(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, uniqueValue(invocations.incrementAndGet()));
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("cache", new JsonObject().put("name", "shared-products"));
+
+    Action first = new InMemoryCacheActionFactory().create(ACTION_ALIAS, config, vertx, doAction);
+    Action second = new InMemoryCacheActionFactory().create(ACTION_ALIAS, config, vertx, doAction);
+
+    // when
+    first.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> second.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals(1, invocations.get());
+                assertEquals(
+                    firstResult.result().getFragment().getPayload().getMap().get(PAYLOAD_KEY),
+                    secondResult.result().getFragment().getPayload().getMap().get(PAYLOAD_KEY));
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Snapshot entry never read is restored after the snapshot is written again.")
+  @Test
+  void restoreUnreadSnapshotEntryAfterPersist(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Path snapshot = Files.createTempFile("products", ".snapshot");
+    long writeTime = System.currentTimeMillis();
+    new CacheSnapshot(snapshot.toString()).write(Arrays.asList(
+        new CacheSnapshot.Entry("product-read", Storage.encode("read"), writeTime),
+        new CacheSnapshot.Entry("product-unread", Storage.encode("unread"), writeTime)));
+    AtomicInteger invocations = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      invocations.incrementAndGet();
+      Future
+          .succeededFuture(new FragmentResult(fragmentContext.getFragment(),
+              FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product-{param.id}")
+        .put("cache", new JsonObject()
+            .put("name", "snapshot-products")
+            .put("ttl", 60000)
+            .put("snapshot", new JsonObject()
+                .put("path", snapshot.toString())
+                .put("interval", 100)));
+    Action first = new InMemoryCacheActionFactory().create(ACTION_ALIAS, config, vertx, doAction);
+
+    // when
+    first.apply(requestContext(firstFragment, "read"),
+        firstResult -> vertx.setTimer(500, id -> {
+          Action second = new InMemoryCacheActionFactory()
+              .create(ACTION_ALIAS, config, vertx, doAction);
+          second.apply(requestContext(secondFragment, "unread"), secondResult -> {
+            // then
+            testContext.verify(() -> {
+              assertEquals(0, invocations.get());
+              assertEquals("unread",
+                  secondResult.result().getFragment().getPayload().getString(PAYLOAD_KEY));
+            });
+            testContext.completeNow();
+          });
+        }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    Files.deleteIfExists(snapshot);
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Exception when snapshot is configured for an unnamed cache region.")
+  @Test
+  void createActionWithSnapshotAndNoName(Vertx vertx) {
+    // given
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("cache", new JsonObject()
+            .put("snapshot", new JsonObject().put("path", "products.snapshot")));
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, config, vertx, (fragmentContext, resultHandler) -> {
+        }));
+  }
+
+  @DisplayName("Snapshot written after the verticle creating the shared region is undeployed.")
+  @Test
+  void writeSnapshotAfterCreatingVerticleUndeployed(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Path directory = Files.createTempDirectory("products");
+    Path snapshot = directory.resolve("products.snapshot");
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product-{param.id}")
+        .put("cache", new JsonObject()
+            .put("name", "undeployed-products")
+            .put("snapshot", new JsonObject()
+                .put("path", snapshot.toString())
+                .put("interval", 100)));
+    AtomicReference<Action> tested = new AtomicReference<>();
+
+    // when
+    vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        new InMemoryCacheActionFactory().create(ACTION_ALIAS, config, vertx, doAction);
+      }
+    }, testContext.succeeding(creator -> vertx.deployVerticle(new AbstractVerticle() {
+      @Override
+      public void start() {
+        tested.set(new InMemoryCacheActionFactory().create(ACTION_ALIAS, config, vertx, doAction));
+      }
+    }, testContext.succeeding(user -> vertx.undeploy(creator, testContext.succeeding(
+        undeployed -> {
+          // the snapshot written before the creator was undeployed does not count
+          testContext.verify(() -> Files.deleteIfExists(snapshot));
+          tested.get().apply(requestContext(firstFragment, "product1"),
+              result -> vertx.setTimer(500, id -> {
+                // then
+                testContext.verify(() -> assertTrue(Files.isRegularFile(snapshot)));
+                testContext.completeNow();
+              }));
+        }))))));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    Files.deleteIfExists(snapshot);
+    Files.deleteIfExists(directory);
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cache metrics count hits, misses, loads and evictions.")
+  @Test
+  void collectCacheMetrics(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    String alias = "metrics-" + UUID.randomUUID();
+    Action tested = new InMemoryCacheActionFactory()
+        .create(alias, new JsonObject()
+            .put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "product-{param.id}")
+            .put("cache", new JsonObject().put("maximumSize", 1)), vertx, doAction);
+
+    // when
+    tested.apply(requestContext(firstFragment, "product1"),
+        first -> tested.apply(requestContext(secondFragment, "product1"),
+            second -> tested.apply(requestContext(firstFragment, "product2"),
+                third -> {
+                  // then
+                  testContext.verify(() -> {
+                    CacheMetrics metrics = CacheMetrics.get(vertx, alias)
+                        .orElseThrow(IllegalStateException::new);
+                    assertEquals(1, metrics.getHits());
+                    assertEquals(2, metrics.getMisses());
+                    assertEquals(2, metrics.getLoads());
+                    assertEquals(1, metrics.getEvictions(RemovalCause.SIZE));
+                    assertEquals(1, metrics.toJson().getLong("size"));
+                  });
+                  testContext.completeNow();
+                })));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cache metrics sum storage statistics of all regions used by the alias.")
+  @Test
+  void sumCacheMetricsOfRegions(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    String alias = "metrics-" + UUID.randomUUID();
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product-{param.id}");
+    Action first = new InMemoryCacheActionFactory().create(alias, config, vertx, doAction);
+    Action second = new InMemoryCacheActionFactory().create(alias, config, vertx, doAction);
+
+    // when
+    first.apply(requestContext(firstFragment, "product1"),
+        firstResult -> second.apply(requestContext(secondFragment, "product1"),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                CacheMetrics metrics = CacheMetrics.get(vertx, alias)
+                    .orElseThrow(IllegalStateException::new);
+                assertEquals(2, metrics.getMisses());
+                assertEquals(2, metrics.toJson().getLong("size"));
+                assertEquals(2, metrics.toJson().getLong("weight"));
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cache metrics drop regions of undeployed verticles.")
+  @Test
+  void removeCacheMetricsRegionsOfUndeployedVerticles(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    String alias = "metrics-" + UUID.randomUUID();
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product-{param.id}");
+    List<Action> actions = new ArrayList<>();
+
+    // when
+    vertx.deployVerticle(new ActionVerticle(alias, config, doAction, actions),
+        testContext.succeeding(first -> vertx.deployVerticle(
+            new ActionVerticle(alias, config, doAction, actions),
+            testContext.succeeding(second -> actions.get(0).apply(
+                requestContext(firstFragment, "product1"),
+                firstResult -> actions.get(1).apply(requestContext(secondFragment, "product1"),
+                    secondResult -> vertx.undeploy(first, testContext.succeeding(
+                        firstUndeployed -> {
+                          // then
+                          testContext.verify(() -> assertEquals(1,
+                              CacheMetrics.get(vertx, alias)
+                                  .orElseThrow(IllegalStateException::new)
+                                  .toJson().getLong("size")));
+                          vertx.undeploy(second, testContext.succeeding(secondUndeployed -> {
+                            testContext.verify(
+                                () -> assertFalse(CacheMetrics.get(vertx, alias).isPresent()));
+                            testContext.completeNow();
+                          }));
+                        }))))))));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cache metrics published after the verticle creating the publisher is undeployed.")
+  @Test
+  void publishCacheMetricsAfterCreatingVerticleUndeployed(VertxTestContext testContext,
+      Vertx vertx) throws Throwable {
+    // given
+    String alias = "metrics-" + UUID.randomUUID();
+    String address = "knotx.fragments.cache.metrics." + alias;
+    JsonObject config = new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("metrics", new JsonObject()
+            .put("address", address)
+            .put("interval", 100));
+    Action doAction = (fragmentContext, resultHandler) -> {
+    };
+    AtomicInteger published = new AtomicInteger();
+    vertx.eventBus().consumer(address, message -> published.incrementAndGet());
+
+    // when
+    vertx.deployVerticle(new ActionVerticle(alias, config, doAction, new ArrayList<>()),
+        testContext.succeeding(creator -> vertx.deployVerticle(
+            new ActionVerticle(alias, config, doAction, new ArrayList<>()),
+            testContext.succeeding(user -> vertx.undeploy(creator, testContext.succeeding(
+                undeployed -> {
+                  published.set(0);
+                  vertx.setTimer(500, id -> {
+                    // then
+                    testContext.verify(() -> assertTrue(published.get() > 0));
+                    testContext.completeNow();
+                  });
+                }))))));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private FragmentContext requestContext(Fragment fragment, String productId) {
+    return new FragmentContext(fragment,
+        new ClientRequest().setParams(MultiMap.caseInsensitiveMultiMap().add("id", productId)));
+  }
+
+  private JsonObject staleConfig(String staleWindow) {
+    return new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("cache", new JsonObject()
+            .put("ttl", SHORT_TTL)
+            .put(staleWindow, 10000));
+  }
+
+  private void verifyPayload(VertxTestContext testContext, Checkpoint checkpoint,
+      AsyncResult<FragmentResult> result, JsonObject expectedPayloadValue) {
+    testContext.verify(() -> assertEquals(expectedPayloadValue,
+        result.result().getFragment().getPayload().getMap().get(PAYLOAD_KEY)));
+    checkpoint.flag();
+  }
+
+  /**
+   * Creates the cache action when deployed, so its close hooks run on undeploy.
+   */
+  private static class ActionVerticle extends AbstractVerticle {
+
+    private final String alias;
+    private final JsonObject config;
+    private final Action doAction;
+    private final List<Action> actions;
+
+    ActionVerticle(String alias, JsonObject config, Action doAction, List<Action> actions) {
+      this.alias = alias;
+      this.config = config;
+      this.doAction = doAction;
+      this.actions = actions;
+    }
+
+    @Override
+    public void start() {
+      actions.add(new InMemoryCacheActionFactory().create(alias, config, vertx, doAction));
+    }
+  }
+
   private String uniqueValue(int contextHash) {
     return EXPECTED_PAYLOAD_DATA + " [" + UUID.randomUUID().toString() + "|" + contextHash + "]";
   }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.Knot;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.serviceproxy.ServiceBinder;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class KnotFactoryTest {
+
+  private static final String ADDRESS = "knotx.knot.test";
+
+  @Test
+  @DisplayName("Expect knot reply when request has no deadline.")
+  void expectReplyWithoutDeadline(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    register(vertx, 0);
+    Action tested = new KnotFactory()
+        .create("knot", new JsonObject().put("address", ADDRESS), vertx, null);
+
+    // when
+    tested.apply(new FragmentContext(fragment(), new ClientRequest()),
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+            Assertions.assertEquals("body-processed", result.getFragment().getBody());
+          });
+          testContext.completeNow();
+        }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect knot reply when request deadline is shorter than send timeout.")
+  void expectReplyWithinDeadline(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    register(vertx, 0);
+    Action tested = new KnotFactory()
+        .create("knot", new JsonObject().put("address", ADDRESS), vertx, null);
+    long deadline = System.currentTimeMillis() + 2000;
+
+    // when
+    tested.apply(new FragmentContext(fragment(), new ClientRequest(), deadline),
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+            Assertions.assertEquals("body-processed", result.getFragment().getBody());
+          });
+          testContext.completeNow();
+        }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect timeout failure when knot does not reply before request deadline.")
+  void expectTimeoutAfterDeadline(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    register(vertx, 1000);
+    Action tested = new KnotFactory()
+        .create("knot", new JsonObject().put("address", ADDRESS), vertx, null);
+    long deadline = System.currentTimeMillis() + 100;
+
+    // when
+    tested.apply(new FragmentContext(fragment(), new ClientRequest(), deadline),
+        testContext.failing(error -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertTrue(error instanceof ReplyException);
+            Assertions.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) error).failureType());
+          });
+          testContext.completeNow();
+        }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private static void register(Vertx vertx, long delay) {
+    Knot knot = (fragmentContext, result) -> {
+      Fragment fragment = fragmentContext.getFragment();
+      FragmentResult fragmentResult = new FragmentResult(
+          fragment.setBody(fragment.getBody() + "-processed"), SUCCESS_TRANSITION);
+      if (delay > 0) {
+        vertx.setTimer(delay, id -> Future.succeededFuture(fragmentResult).setHandler(result));
+      } else {
+        Future.succeededFuture(fragmentResult).setHandler(result);
+      }
+    };
+    new ServiceBinder(vertx).setAddress(ADDRESS).register(Knot.class, knot);
+  }
+
+  private static Fragment fragment() {
+    return new Fragment("type", new JsonObject(), "body");
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.action.RateLimitActionFactory.THROTTLED_TRANSITION;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.RateLimitActionFactory.TokenBucket;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class RateLimitActionTest {
+
+  @Test
+  @DisplayName("Expect burst of tokens and throttling when the bucket is empty.")
+  void expectBurst() {
+    // given
+    TokenBucket tested = new TokenBucket(1, 2);
+
+    // when
+    long first = tested.acquire(0);
+    long second = tested.acquire(0);
+    long third = tested.acquire(0);
+
+    // then
+    Assertions.assertEquals(0, first);
+    Assertions.assertEquals(0, second);
+    Assertions.assertEquals(-1, third);
+  }
+
+  @Test
+  @DisplayName("Expect reserved token when the call can wait for it.")
+  void expectReservedToken() {
+    // given
+    TokenBucket tested = new TokenBucket(1, 1);
+    tested.acquire(0);
+
+    // when
+    long delay = tested.acquire(TimeUnit.SECONDS.toNanos(2));
+
+    // then
+    Assertions.assertTrue(delay > 0);
+    Assertions.assertTrue(delay <= TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertEquals(-1, tested.acquire(TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Test
+  @DisplayName("Expect throttled transition from the other action sharing the rate limit.")
+  void expectThrottled(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    JsonObject config = new JsonObject()
+        .put("name", "rate-" + UUID.randomUUID())
+        .put("rate", 1.0);
+    Action first = new RateLimitActionFactory()
+        .create("first", config, vertx, doAction(invocations));
+    Action second = new RateLimitActionFactory()
+        .create("second", config, vertx, doAction(invocations));
+
+    // when
+    first.apply(fragmentContext(), firstResult -> second.apply(fragmentContext(),
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, firstResult.result().getTransition());
+            Assertions.assertEquals(THROTTLED_TRANSITION, result.getTransition());
+            Assertions.assertEquals(1, invocations.get());
+          });
+          testContext.completeNow();
+        })));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect delayed invocation when the call waits for a token.")
+  void expectDelayedInvocation(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    JsonObject config = new JsonObject()
+        .put("name", "rate-" + UUID.randomUUID())
+        .put("rate", 10.0)
+        .put("burst", 1)
+        .put("maxWait", 500);
+    Action tested = new RateLimitActionFactory()
+        .create("rate", config, vertx, doAction(invocations));
+    long start = System.currentTimeMillis();
+
+    // when
+    tested.apply(fragmentContext(), firstResult -> tested.apply(fragmentContext(),
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+            Assertions.assertEquals(2, invocations.get());
+            Assertions.assertTrue(System.currentTimeMillis() - start >= 50);
+          });
+          testContext.completeNow();
+        })));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect throttled transition when the request deadline does not allow waiting.")
+  void expectThrottledWhenDeadlineExceeded(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    JsonObject config = new JsonObject()
+        .put("name", "rate-" + UUID.randomUUID())
+        .put("rate", 1.0)
+        .put("maxWait", 5000);
+    Action tested = new RateLimitActionFactory()
+        .create("rate", config, vertx, doAction(invocations));
+    FragmentContext withDeadline = new FragmentContext(
+        new Fragment("type", new JsonObject(), "body"), new ClientRequest(),
+        System.currentTimeMillis() + 100);
+
+    // when
+    tested.apply(fragmentContext(), firstResult -> tested.apply(withDeadline,
+        testContext.succeeding(result -> {
+          // then
+          testContext.verify(() -> {
+            Assertions.assertEquals(THROTTLED_TRANSITION, result.getTransition());
+            Assertions.assertEquals(1, invocations.get());
+          });
+          testContext.completeNow();
+        })));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private static Action doAction(AtomicInteger invocations) {
+    return (fragmentContext, resultHandler) -> {
+      invocations.incrementAndGet();
+      Future.succeededFuture(
+          new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+  }
+
+  private static FragmentContext fragmentContext() {
+    return new FragmentContext(new Fragment("type", new JsonObject(), "body"),
+        new ClientRequest());
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.action.RetryActionFactory.Backoff;
+import io.knotx.fragments.handler.action.RetryActionFactory.RetryAction;
+import io.knotx.fragments.handler.action.RetryActionFactory.RetryPolicy;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class RetryActionTest {
+
+  private static final JsonArray TIMEOUTS = new JsonArray().add(ReplyFailure.TIMEOUT.name());
+
+  @Test
+  @DisplayName("Expect success when doAction fails with a retryable error and then succeeds.")
+  void expectSuccessAfterRetries(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    RetryAction tested = new RetryAction(vertx, failing(invocations, 2, ReplyFailure.TIMEOUT), 3,
+        new RetryPolicy(TIMEOUTS), new Backoff(10, 2.0, 100, 0.5), new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      // then
+      testContext.verify(() -> {
+        Assertions.assertEquals(SUCCESS_TRANSITION, result.getTransition());
+        Assertions.assertEquals(3, invocations.get());
+      });
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect failure without retries when the error type is not retryable.")
+  void expectNoRetryForOtherErrors(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    RetryAction tested = new RetryAction(vertx,
+        failing(invocations, 1, ReplyFailure.RECIPIENT_FAILURE), 3,
+        new RetryPolicy(TIMEOUTS), new Backoff(10, 2.0, 100, 0.5), new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.failing(error -> {
+      // then
+      testContext.verify(() -> Assertions.assertEquals(1, invocations.get()));
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect failure when max retries are exhausted.")
+  void expectFailureAfterMaxRetries(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    RetryAction tested = new RetryAction(vertx, failing(invocations, 5, ReplyFailure.TIMEOUT), 2,
+        new RetryPolicy(null), new Backoff(10, 2.0, 100, 0.5), new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.failing(error -> {
+      // then
+      testContext.verify(() -> Assertions.assertEquals(3, invocations.get()));
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect no retry when the retry budget is exhausted.")
+  void expectNoRetryWhenBudgetExhausted(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    RetryAction tested = new RetryAction(vertx, failing(invocations, 5, ReplyFailure.TIMEOUT), 3,
+        new RetryPolicy(null), new Backoff(10, 2.0, 100, 0.5), new CallBudget(0.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.failing(error -> {
+      // then
+      testContext.verify(() -> Assertions.assertEquals(1, invocations.get()));
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect exponential backoff capped by the max delay.")
+  void expectExponentialBackoff() {
+    // given
+    Backoff tested = new Backoff(10, 2.0, 50, 0.0);
+
+    // then
+    Assertions.assertEquals(10, tested.delay(0));
+    Assertions.assertEquals(20, tested.delay(1));
+    Assertions.assertEquals(40, tested.delay(2));
+    Assertions.assertEquals(50, tested.delay(3));
+  }
+
+  @Test
+  @DisplayName("Expect retry budget shared by name between actions.")
+  void expectSharedBudget(Vertx vertx) {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+    };
+    JsonObject config = new JsonObject()
+        .put("budget", new JsonObject().put("name", "shared-budget").put("burst", 1));
+    new RetryActionFactory().create("first", config, vertx, doAction);
+
+    // when
+    CallBudget budget = RetryActionFactory.budget(vertx, "shared-budget", 1.0, 100);
+
+    // then
+    Assertions.assertTrue(budget.withdraw());
+    Assertions.assertFalse(budget.withdraw());
+  }
+
+  @Test
+  @DisplayName("Expect retry budget shared by the action alias when the name is not configured.")
+  void expectBudgetSharedByAlias(Vertx vertx) {
+    // given
+    Action doAction = (fragmentContext, resultHandler) -> {
+    };
+    String alias = "retry-" + UUID.randomUUID();
+    JsonObject config = new JsonObject().put("budget", new JsonObject().put("burst", 1));
+    new RetryActionFactory().create(alias, config, vertx, doAction);
+
+    // when
+    CallBudget budget = RetryActionFactory
+        .budget(vertx, alias, RetryActionFactory.DEFAULT_BUDGET_RATIO, 1);
+
+    // then
+    Assertions.assertTrue(budget.withdraw());
+    Assertions.assertFalse(budget.withdraw());
+  }
+
+  @Test
+  @DisplayName("Expect each retry invoked with its own copy of the fragment.")
+  void expectFragmentCopiedForRetry(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    List<Fragment> fragments = new CopyOnWriteArrayList<>();
+    AtomicInteger invocations = new AtomicInteger();
+    Action failing = failing(invocations, 1, ReplyFailure.TIMEOUT);
+    Action doAction = (fragmentContext, resultHandler) -> {
+      fragments.add(fragmentContext.getFragment());
+      failing.apply(fragmentContext, resultHandler);
+    };
+    RetryAction tested = new RetryAction(vertx, doAction, 3, new RetryPolicy(TIMEOUTS),
+        new Backoff(10, 2.0, 100, 0.5), new CallBudget(1.0, 10));
+
+    // when
+    tested.apply(fragmentContext(), testContext.succeeding(result -> {
+      // then
+      testContext.verify(() -> {
+        Assertions.assertEquals(2, fragments.size());
+        Assertions.assertNotSame(fragments.get(0), fragments.get(1));
+        Assertions.assertEquals(fragments.get(0).getId(), fragments.get(1).getId());
+      });
+      testContext.completeNow();
+    }));
+
+    Assertions.assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private static Action failing(AtomicInteger invocations, int failures, ReplyFailure failure) {
+    return (fragmentContext, resultHandler) -> {
+      if (invocations.incrementAndGet() <= failures) {
+        Future.<FragmentResult>failedFuture(new ReplyException(failure, "failure"))
+            .setHandler(resultHandler);
+      } else {
+        Future.succeededFuture(
+            new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))
+            .setHandler(resultHandler);
+      }
+    };
+  }
+
+  private static FragmentContext fragmentContext() {
+    return new FragmentContext(new Fragment("type", new JsonObject(), "body"),
+        new ClientRequest());
+  }
+}
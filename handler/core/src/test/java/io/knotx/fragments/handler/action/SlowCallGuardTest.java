@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.action.SlowCallGuard.Permit;
+import io.knotx.fragments.handler.action.SlowCallGuard.State;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SlowCallGuardTest {
+
+  private static final long SLOW = 100;
+  private static final long FAST = 10;
+
+  @Test
+  @DisplayName("Expect circuit stays closed until the minimum number of calls is recorded.")
+  void expectClosedBelowMinimumCalls() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.5, 10, 5, 1, 10000);
+
+    // when
+    for (int i = 0; i < 4; i++) {
+      tested.record(tested.acquire(), SLOW);
+    }
+
+    // then
+    Assertions.assertEquals(State.CLOSED, tested.getState());
+    Assertions.assertEquals(Permit.CALL, tested.acquire());
+  }
+
+  @Test
+  @DisplayName("Expect circuit opens when the slow calls rate exceeds the threshold.")
+  void expectOpenWhenSlowCallsRateExceeded() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.5, 4, 4, 1, 10000);
+
+    // when
+    tested.record(tested.acquire(), FAST);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), FAST);
+    tested.record(tested.acquire(), SLOW);
+
+    // then
+    Assertions.assertEquals(State.OPEN, tested.getState());
+    Assertions.assertEquals(Permit.REJECTED, tested.acquire());
+  }
+
+  @Test
+  @DisplayName("Expect old calls leave the sliding window.")
+  void expectSlidingWindow() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.75, 4, 4, 1, 10000);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), FAST);
+    tested.record(tested.acquire(), FAST);
+
+    // when
+    tested.record(tested.acquire(), FAST);
+    tested.record(tested.acquire(), SLOW);
+
+    // then
+    Assertions.assertEquals(State.CLOSED, tested.getState());
+  }
+
+  @Test
+  @DisplayName("Expect half-open circuit permits only the configured number of concurrent trials.")
+  void expectHalfOpenTrialsLimited() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.5, 2, 2, 2, 0);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), SLOW);
+
+    // when
+    Permit first = tested.acquire();
+    Permit second = tested.acquire();
+    Permit third = tested.acquire();
+
+    // then
+    Assertions.assertEquals(State.HALF_OPEN, tested.getState());
+    Assertions.assertEquals(Permit.TRIAL, first);
+    Assertions.assertEquals(Permit.TRIAL, second);
+    Assertions.assertEquals(Permit.REJECTED, third);
+  }
+
+  @Test
+  @DisplayName("Expect circuit closes when all trials are fast.")
+  void expectClosedAfterFastTrials() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.5, 2, 2, 2, 0);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), SLOW);
+
+    // when
+    tested.record(tested.acquire(), FAST);
+    tested.record(tested.acquire(), FAST);
+
+    // then
+    Assertions.assertEquals(State.CLOSED, tested.getState());
+    Assertions.assertEquals(Permit.CALL, tested.acquire());
+  }
+
+  @Test
+  @DisplayName("Expect circuit opens again when a trial is slow.")
+  void expectOpenAfterSlowTrial() {
+    // given
+    SlowCallGuard tested = new SlowCallGuard(SLOW, 0.5, 2, 2, 1, 0);
+    tested.record(tested.acquire(), SLOW);
+    tested.record(tested.acquire(), SLOW);
+
+    // when
+    Permit trial = tested.acquire();
+    tested.record(trial, SLOW);
+
+    // then
+    Assertions.assertEquals(Permit.TRIAL, trial);
+    Assertions.assertEquals(State.OPEN, tested.getState());
+  }
+}
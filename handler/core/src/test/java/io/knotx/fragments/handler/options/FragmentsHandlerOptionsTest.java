@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.options;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FragmentsHandlerOptionsTest {
+
+  @Test
+  @DisplayName("Expect exception when max concurrent fragments per request is not positive.")
+  void expectExceptionWhenMaxConcurrentFragmentsNotPositive() {
+    // given
+    JsonObject config = new JsonObject().put("maxConcurrentFragmentsPerRequest", 0);
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> new FragmentsHandlerOptions(config));
+  }
+
+  @Test
+  @DisplayName("Expect exception when max concurrent blocking nodes is negative.")
+  void expectExceptionWhenMaxConcurrentBlockingNodesNegative() {
+    // given
+    JsonObject config = new JsonObject().put("maxConcurrentBlockingNodes", -1);
+
+    // when, then
+    assertThrows(IllegalArgumentException.class, () -> new FragmentsHandlerOptions(config));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.placeholders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.reactivex.core.MultiMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClientRequestTemplateTest {
+
+  private static final ClientRequest CLIENT_REQUEST = new ClientRequest()
+      .setParams(MultiMap.caseInsensitiveMultiMap().add("id", "product1"))
+      .setHeaders(MultiMap.caseInsensitiveMultiMap().add("X-Brand", "knotx"));
+
+  @Test
+  @DisplayName("Expect template without placeholders rendered as it is.")
+  void expectLiteral() {
+    // given
+    ClientRequestTemplate tested = ClientRequestTemplate.compile("product");
+
+    // when
+    String result = tested.render(CLIENT_REQUEST);
+
+    // then
+    assertEquals("product", result);
+  }
+
+  @Test
+  @DisplayName("Expect request param and header placeholders resolved.")
+  void expectParamAndHeaderResolved() {
+    // given
+    ClientRequestTemplate tested = ClientRequestTemplate
+        .compile("product-{param.id}-{header.x-brand}");
+
+    // when
+    String result = tested.render(CLIENT_REQUEST);
+
+    // then
+    assertEquals("product-product1-knotx", result);
+  }
+
+  @Test
+  @DisplayName("Expect missing request param rendered as empty value.")
+  void expectMissingParamEmpty() {
+    // given
+    ClientRequestTemplate tested = ClientRequestTemplate.compile("product-{param.missing}");
+
+    // when
+    String result = tested.render(CLIENT_REQUEST);
+
+    // then
+    assertEquals("product-", result);
+  }
+
+  @Test
+  @DisplayName("Expect unclosed placeholder rendered as literal.")
+  void expectUnclosedPlaceholderLiteral() {
+    // given
+    ClientRequestTemplate tested = ClientRequestTemplate.compile("product-{param.id");
+
+    // when
+    String result = tested.render(CLIENT_REQUEST);
+
+    // then
+    assertEquals("product-{param.id", result);
+  }
+
+  @Test
+  @DisplayName("Expect exception when template is blank.")
+  void expectBlankTemplateRejected() {
+    assertThrows(IllegalArgumentException.class, () -> ClientRequestTemplate.compile(" "));
+  }
+}
@@ -270,6 +270,33 @@ class ConfigurationTaskProviderTest {
     assertFalse(rootNode.next("customTransition").isPresent());
   }
 
+  @Test
+  @DisplayName("Expect composite node timeout continues with success transition when no timeout edge.")
+  void expectCompositeNodeTimeoutFallsBackToSuccess() {
+    // given
+    when(actionProvider.get(eq("simpleAction"))).thenReturn(Optional.of(actionMock));
+    when(actionProvider.get(eq("lastAction"))).thenReturn(Optional.of(actionMock));
+
+    GraphNodeOptions graph = new GraphNodeOptions(
+        subTasks(new GraphNodeOptions("simpleAction", NO_TRANSITIONS)),
+        Collections
+            .singletonMap(SUCCESS_TRANSITION, new GraphNodeOptions("lastAction", NO_TRANSITIONS))
+    );
+    graph.getNode().getConfig().put("timeout", 100);
+
+    // when
+    Task task = getTask(graph);
+
+    // then
+    assertTrue(task.getRootNode().isPresent());
+    CompositeNode rootNode = (CompositeNode) task.getRootNode().get();
+    assertEquals(100, rootNode.getTimeout());
+    assertEquals(SUCCESS_TRANSITION, rootNode.getTimeoutTransition());
+    Optional<Node> onTimeout = rootNode.next(rootNode.getTimeoutTransition());
+    assertTrue(onTimeout.isPresent());
+    assertEquals("lastAction", onTimeout.get().getId());
+  }
+
   @Test
   @DisplayName("Expect graph with nested composite nodes")
   void expectNestedCompositeNodesGraph() {
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.task;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.FragmentEvent;
+import io.knotx.fragments.engine.FragmentEventContext;
+import io.knotx.fragments.task.options.TaskCacheOptions;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.MultiMap;
+import io.vertx.core.json.JsonObject;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TaskCacheKeyTest {
+
+  @Test
+  @DisplayName("Expect the same key for the same fragment and request data.")
+  void expectSameKey() {
+    // given
+    TaskCacheKey tested = new TaskCacheKey("task", options("a", "b"));
+
+    // when
+    String first = tested.apply(context(params().add("a", "x").add("b", "y")));
+    String second = tested.apply(context(params().add("a", "x").add("b", "y")));
+
+    // then
+    Assertions.assertEquals(first, second);
+  }
+
+  @Test
+  @DisplayName("Expect different keys when a value contains the separator.")
+  void expectNoCollisionWithSeparatorInValue() {
+    // given
+    TaskCacheKey tested = new TaskCacheKey("task", options("a", "b"));
+
+    // when
+    String joined = tested.apply(context(params().add("a", "x|y")));
+    String split = tested.apply(context(params().add("a", "x").add("b", "y")));
+
+    // then
+    Assertions.assertNotEquals(joined, split);
+  }
+
+  @Test
+  @DisplayName("Expect different keys for an absent value and a \"null\" value.")
+  void expectNoCollisionBetweenAbsentAndNullValue() {
+    // given
+    TaskCacheKey tested = new TaskCacheKey("task", options("a"));
+
+    // when
+    String absent = tested.apply(context(params()));
+    String literal = tested.apply(context(params().add("a", "null")));
+
+    // then
+    Assertions.assertNotEquals(absent, literal);
+  }
+
+  @Test
+  @DisplayName("Expect different keys for an absent value and an empty value.")
+  void expectNoCollisionBetweenAbsentAndEmptyValue() {
+    // given
+    TaskCacheKey tested = new TaskCacheKey("task", options("a"));
+
+    // when
+    String absent = tested.apply(context(params()));
+    String empty = tested.apply(context(params().add("a", "")));
+
+    // then
+    Assertions.assertNotEquals(absent, empty);
+  }
+
+  private static TaskCacheOptions options(String... params) {
+    return new TaskCacheOptions().setParams(Arrays.asList(params));
+  }
+
+  private static MultiMap params() {
+    return MultiMap.caseInsensitiveMultiMap();
+  }
+
+  private static FragmentEventContext context(MultiMap params) {
+    Fragment fragment = new Fragment("snippet", new JsonObject(), "body");
+    return new FragmentEventContext(new FragmentEvent(fragment),
+        new ClientRequest().setParams(params));
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.task;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.FragmentEvent;
+import io.knotx.fragments.engine.FragmentEventContext;
+import io.knotx.fragments.engine.Task;
+import io.knotx.fragments.handler.action.ActionProvider;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.options.FragmentsHandlerOptions;
+import io.knotx.fragments.task.exception.GraphConfigurationException;
+import io.knotx.fragments.task.options.TaskOptions;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TaskFactoryTest {
+
+  private static final String TASK_NAME = "task";
+
+  @Mock
+  private ActionProvider actionProvider;
+
+  @Mock
+  private Action actionMock;
+
+  @Test
+  @DisplayName("Expect the same compiled task for all fragments.")
+  void expectSharedTask() {
+    // given
+    when(actionProvider.get(eq("simpleAction"))).thenReturn(Optional.of(actionMock));
+    TaskFactory tested = new TaskFactory(FragmentsHandlerOptions.DEFAULT_TASK_KEY,
+        tasks("simpleAction"), actionProvider);
+
+    // when
+    Optional<Task> first = tested.newInstance(eventContext(TASK_NAME));
+    Optional<Task> second = tested.newInstance(eventContext(TASK_NAME));
+
+    // then
+    assertTrue(first.isPresent());
+    assertTrue(second.isPresent());
+    assertSame(first.get(), second.get());
+    assertSame(first.get().getRootNode().get(), second.get().getRootNode().get());
+  }
+
+  @Test
+  @DisplayName("Expect actions are resolved once, when factory is created.")
+  void expectActionsResolvedOnce() {
+    // given
+    when(actionProvider.get(eq("simpleAction"))).thenReturn(Optional.of(actionMock));
+    TaskFactory tested = new TaskFactory(FragmentsHandlerOptions.DEFAULT_TASK_KEY,
+        tasks("simpleAction"), actionProvider);
+
+    // when
+    tested.newInstance(eventContext(TASK_NAME));
+    tested.newInstance(eventContext(TASK_NAME));
+
+    // then
+    verify(actionProvider, times(1)).get(eq("simpleAction"));
+  }
+
+  @Test
+  @DisplayName("Expect no task when fragment does not define task.")
+  void expectNoTask() {
+    // given
+    TaskFactory tested = new TaskFactory(FragmentsHandlerOptions.DEFAULT_TASK_KEY,
+        Collections.emptyMap(), actionProvider);
+
+    // when
+    Optional<Task> task = tested.newInstance(new FragmentEventContext(
+        new FragmentEvent(new Fragment("type", new JsonObject(), "body")), new ClientRequest()));
+
+    // then
+    assertFalse(task.isPresent());
+  }
+
+  @Test
+  @DisplayName("Expect exception when factory is created and action is not defined.")
+  void expectExceptionWhenActionNotConfigured() {
+    // given
+    when(actionProvider.get(eq("simpleAction"))).thenReturn(Optional.empty());
+
+    // when, then
+    assertThrows(GraphConfigurationException.class,
+        () -> new TaskFactory(FragmentsHandlerOptions.DEFAULT_TASK_KEY, tasks("simpleAction"),
+            actionProvider));
+  }
+
+  private Map<String, TaskOptions> tasks(String action) {
+    return Collections.singletonMap(TASK_NAME, new TaskOptions(new JsonObject()
+        .put("graph", new JsonObject().put("action", action))));
+  }
+
+  private FragmentEventContext eventContext(String taskName) {
+    return new FragmentEventContext(new FragmentEvent(new Fragment("type",
+        new JsonObject().put(FragmentsHandlerOptions.DEFAULT_TASK_KEY, taskName), "body")),
+        new ClientRequest());
+  }
+}
@@ -21,6 +21,7 @@ plugins {
     id("io.knotx.maven-publish")
     id("io.knotx.jacoco")
     id("org.nosphere.apache.rat") version "0.4.0"
+    id("me.champeau.gradle.jmh") version "0.5.0"
 }
 
 dependencies {
@@ -31,6 +32,15 @@ dependencies {
     implementation(group = "io.vertx", name = "vertx-core")
     implementation(group = "io.vertx", name = "vertx-service-proxy")
     implementation(group = "io.vertx", name = "vertx-rx-java2")
+    implementation(group = "com.google.guava", name = "guava")
+
+    jmh(platform("io.knotx:knotx-dependencies:${project.version}"))
+    jmh(group = "io.vertx", name = "vertx-core")
+    jmh(group = "io.vertx", name = "vertx-rx-java2")
+}
+
+jmh {
+    jmhVersion = "1.23"
 }
 
 tasks {
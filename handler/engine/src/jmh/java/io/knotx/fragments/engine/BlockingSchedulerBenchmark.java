@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the worker pool and the virtual threads schedulers processing fragments with blocking
+ * actions, the same load as in {@code FragmentsEngineConcurrencyTest} at a larger scale. Virtual
+ * threads require JDK 21+, otherwise both variants use the worker pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlockingSchedulerBenchmark {
+
+  private static final int BLOCKING_TIME_IN_MILLIS = 10;
+
+  private static final Function<FragmentContext, Single<FragmentResult>> BLOCKING_OPERATION = fragmentContext -> {
+    try {
+      Thread.sleep(BLOCKING_TIME_IN_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Single.just(
+        new FragmentResult(fragmentContext.getFragment(), FragmentResult.SUCCESS_TRANSITION));
+  };
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  @Param({"100", "1000"})
+  private int numberOfFragments;
+
+  private Vertx vertx;
+  private FragmentsEngine engine;
+
+  @Setup
+  public void setUp() {
+    vertx = Vertx.vertx();
+    engine = new FragmentsEngine(vertx,
+        new FragmentsEngineOptions().setVirtualThreads(virtualThreads));
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<FragmentEvent> execute() {
+    List<FragmentEventContextTaskAware> events = Stream
+        .generate(this::initFragmentEventContextTaskAware)
+        .limit(numberOfFragments)
+        .collect(Collectors.toList());
+    return engine.execute(events).blockingGet();
+  }
+
+  private FragmentEventContextTaskAware initFragmentEventContextTaskAware() {
+    SingleNode graphNode = new SingleNode("id", BLOCKING_OPERATION, Collections.emptyMap());
+    Fragment fragment = new Fragment("snippet", new JsonObject(), "some body");
+
+    return new FragmentEventContextTaskAware(new Task("task", graphNode),
+        new FragmentEventContext(new FragmentEvent(fragment), new ClientRequest()));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link FragmentsEngine} overhead (scheduling, results ordering) for pages with many
+ * fragments. Fragments are processed with non-blocking, no-op nodes, so the engine cost dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FragmentsEngineBenchmark {
+
+  private static final Function<FragmentContext, Single<FragmentResult>> SIMPLE_OPERATION =
+      fragmentContext -> Single.just(
+          new FragmentResult(fragmentContext.getFragment(), FragmentResult.SUCCESS_TRANSITION));
+
+  @Param({"10", "100", "1000"})
+  private int numberOfFragments;
+
+  private Vertx vertx;
+  private FragmentsEngine engine;
+  private List<FragmentEventContextTaskAware> events;
+
+  @Setup
+  public void setUp() {
+    vertx = Vertx.vertx();
+    engine = new FragmentsEngine(vertx);
+  }
+
+  @Setup(Level.Invocation)
+  public void initEvents() {
+    events = Stream.generate(this::initFragmentEventContextTaskAware)
+        .limit(numberOfFragments)
+        .collect(Collectors.toList());
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<FragmentEvent> execute() {
+    return engine.execute(events).blockingGet();
+  }
+
+  private FragmentEventContextTaskAware initFragmentEventContextTaskAware() {
+    SingleNode graphNode = new SingleNode("id", SIMPLE_OPERATION, Collections.emptyMap(), false);
+    Fragment fragment = new Fragment("snippet", new JsonObject(), "some body");
+
+    return new FragmentEventContextTaskAware(new Task("task", graphNode),
+        new FragmentEventContext(new FragmentEvent(fragment), new ClientRequest()));
+  }
+}
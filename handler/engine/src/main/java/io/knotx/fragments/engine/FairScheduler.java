@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.handler.api.shared.SharedRegistry;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.Vertx;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Limits the number of concurrently executed blocking nodes and interleaves them fairly between
+ * requests. Each request has its own queue of pending nodes, queues with pending nodes are served in
+ * round-robin order. So a page with hundreds of fragments can not delay small pages by taking all
+ * worker threads. The scheduler is shared by all engines in the Vert.x instance.
+ */
+class FairScheduler {
+
+  private static final String SCHEDULERS_MAP = "knotx.fragments.engine.schedulers";
+  private static final String SCHEDULER_KEY = "fair";
+
+  private final int maxConcurrency;
+  private final Deque<Queue> ready = new ArrayDeque<>();
+  private int running;
+  private boolean draining;
+
+  FairScheduler(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Returns the scheduler shared in the Vert.x instance, see {@link SharedRegistry}.
+   */
+  static FairScheduler shared(Vertx vertx, int maxConcurrency) {
+    return SharedRegistry.getOrCreate(vertx, SCHEDULERS_MAP, SCHEDULER_KEY, maxConcurrency,
+        () -> new FairScheduler(maxConcurrency));
+  }
+
+  /**
+   * @return new queue of a request
+   */
+  Queue newQueue() {
+    return new Queue();
+  }
+
+  /**
+   * Executes the work when the queue gets its turn. The permit is released when the work ends or
+   * is disposed.
+   */
+  <T> Single<T> execute(Queue queue, Callable<Single<T>> work) {
+    return Single.create(emitter -> submit(queue, () -> {
+      if (emitter.isDisposed()) {
+        release();
+        return;
+      }
+      Disposable disposable = Single.defer(work)
+          .doFinally(this::release)
+          .subscribe(emitter::onSuccess, emitter::onError);
+      emitter.setDisposable(disposable);
+    }));
+  }
+
+  private void submit(Queue queue, Runnable task) {
+    synchronized (this) {
+      queue.tasks.add(task);
+      if (!queue.scheduled) {
+        queue.scheduled = true;
+        ready.add(queue);
+      }
+    }
+    drain();
+  }
+
+  private void release() {
+    synchronized (this) {
+      running--;
+    }
+    drain();
+  }
+
+  /**
+   * Runs tasks while permits are available. Tasks released inline (e.g. disposed ones) are picked
+   * up by the loop of the thread already draining, so a long queue does not grow the stack.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    try {
+      List<Runnable> toRun;
+      while (!(toRun = nextTasks()).isEmpty()) {
+        toRun.forEach(Runnable::run);
+      }
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        draining = false;
+      }
+      throw e;
+    }
+  }
+
+  private synchronized List<Runnable> nextTasks() {
+    List<Runnable> toRun = poll();
+    if (toRun.isEmpty()) {
+      draining = false;
+    }
+    return toRun;
+  }
+
+  private List<Runnable> poll() {
+    List<Runnable> toRun = new ArrayList<>();
+    while (running < maxConcurrency && !ready.isEmpty()) {
+      Queue queue = ready.poll();
+      toRun.add(queue.tasks.poll());
+      if (queue.tasks.isEmpty()) {
+        queue.scheduled = false;
+      } else {
+        ready.add(queue);
+      }
+      running++;
+    }
+    return toRun;
+  }
+
+  /**
+   * Pending nodes of a single request, guarded by the scheduler monitor.
+   */
+  static final class Queue {
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private boolean scheduled;
+
+    private Queue() {
+    }
+  }
+}
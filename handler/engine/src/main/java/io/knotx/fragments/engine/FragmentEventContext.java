@@ -15,6 +15,7 @@
  */
 package io.knotx.fragments.engine;
 
+import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.server.api.context.ClientRequest;
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonObject;
@@ -25,24 +26,39 @@ public class FragmentEventContext {
 
   private static final String FRAGMENT_EVENT_KEY = "fragmentEvent";
   private static final String CLIENT_REQUEST_KEY = "clientRequest";
+  private static final String DEADLINE_KEY = "deadline";
 
   private final FragmentEvent fragmentEvent;
   private final ClientRequest clientRequest;
+  private final long deadline;
 
   public FragmentEventContext(FragmentEvent fragmentEvent, ClientRequest clientRequest) {
+    this(fragmentEvent, clientRequest, FragmentContext.NO_DEADLINE);
+  }
+
+  /**
+   * @param fragmentEvent fragment event
+   * @param clientRequest client request
+   * @param deadline time (epoch milliseconds) when the request processing budget is exhausted
+   */
+  public FragmentEventContext(FragmentEvent fragmentEvent, ClientRequest clientRequest,
+      long deadline) {
     this.fragmentEvent = fragmentEvent;
     this.clientRequest = clientRequest;
+    this.deadline = deadline;
   }
 
   public FragmentEventContext(JsonObject json) {
     this.fragmentEvent = new FragmentEvent(json.getJsonObject(FRAGMENT_EVENT_KEY));
     this.clientRequest = new ClientRequest(json.getJsonObject(CLIENT_REQUEST_KEY));
+    this.deadline = json.getLong(DEADLINE_KEY, FragmentContext.NO_DEADLINE);
   }
 
   public JsonObject toJson() {
     return new JsonObject()
         .put(FRAGMENT_EVENT_KEY, fragmentEvent.toJson())
-        .put(CLIENT_REQUEST_KEY, clientRequest.toJson());
+        .put(CLIENT_REQUEST_KEY, clientRequest.toJson())
+        .put(DEADLINE_KEY, deadline);
   }
 
   public FragmentEvent getFragmentEvent() {
@@ -53,6 +69,10 @@ public class FragmentEventContext {
     return clientRequest;
   }
 
+  public long getDeadline() {
+    return deadline;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -62,13 +82,14 @@ public class FragmentEventContext {
       return false;
     }
     FragmentEventContext that = (FragmentEventContext) o;
-    return Objects.equals(fragmentEvent, that.fragmentEvent) &&
+    return deadline == that.deadline &&
+        Objects.equals(fragmentEvent, that.fragmentEvent) &&
         Objects.equals(clientRequest, that.clientRequest);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(fragmentEvent, clientRequest);
+    return Objects.hash(fragmentEvent, clientRequest, deadline);
   }
 
   @Override
@@ -76,6 +97,7 @@ public class FragmentEventContext {
     return "FragmentEventContext{" +
         "fragmentEvent=" + fragmentEvent +
         ", clientRequest=" + clientRequest +
+        ", deadline=" + deadline +
         '}';
   }
 }
@@ -22,8 +22,9 @@ import io.reactivex.Single;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.core.Vertx;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -38,9 +39,24 @@ public class FragmentsEngine {
   private static final Logger LOGGER = LoggerFactory.getLogger(FragmentsEngine.class);
 
   private final TaskEngine taskEngine;
+  private final int maxConcurrentFragments;
 
   public FragmentsEngine(Vertx vertx) {
-    this.taskEngine = new TaskEngine(vertx.getDelegate());
+    this(vertx, new FragmentsEngineOptions());
+  }
+
+  public FragmentsEngine(Vertx vertx, FragmentsEngineOptions options) {
+    this.taskEngine = new TaskEngine(vertx.getDelegate(), options);
+    this.maxConcurrentFragments = options.getMaxConcurrentFragmentsPerRequest();
+  }
+
+  /**
+   * Releases engine resources, e.g. the virtual thread executor. It is called when the verticle
+   * creating the engine is undeployed, engines created outside verticles should be closed
+   * explicitly.
+   */
+  public void close() {
+    taskEngine.close();
   }
 
   /**
@@ -51,43 +67,36 @@ public class FragmentsEngine {
    * order as the original list
    */
   public Single<List<FragmentEvent>> execute(List<FragmentEventContextTaskAware> fragments) {
+    return Single.defer(() -> {
+      // results are written to the fragment's position, so the completion order does not matter
+      FragmentEvent[] results = new FragmentEvent[fragments.size()];
+      FairScheduler.Queue requestQueue = taskEngine.newRequestQueue();
 
-    return Flowable.just(fragments)
-        .concatMap(Flowable::fromIterable)
-        .map(fragmentCtx -> fragmentCtx
-            .getTask()
-            .getRootNode()
-            .map(rootNode -> startTaskEngine(fragmentCtx, rootNode))
-            .orElseGet(() -> Single.just(fragmentCtx.getFragmentEventContext().getFragmentEvent()))
-        )
-        .flatMap(Single::toFlowable)
-        .reduce(new ArrayList<FragmentEvent>(), (list, item) -> {
-          list.add(item);
-          return list;
-        })
-        .map(list -> incomingOrder(list, fragments))
-        .map(this::traceEngineResults);
-  }
-
-  private Single<FragmentEvent> startTaskEngine(FragmentEventContextTaskAware fragment, Node rootNode) {
-      return taskEngine.start(fragment.getTask().getName(), rootNode, fragment.getFragmentEventContext());
+      return Flowable.range(0, fragments.size())
+          .flatMapSingle(index -> process(fragments.get(index), requestQueue)
+              .map(event -> results[index] = event), false, maxConcurrentFragments)
+          .ignoreElements()
+          .toSingle(() -> Arrays.asList(results));
+    }).map(this::traceEngineResults);
   }
 
-  private List<FragmentEvent> incomingOrder(
-      List<FragmentEvent> list, List<FragmentEventContextTaskAware> sourceEvents) {
-
-    return sourceEvents.stream()
-        .map(event -> event.getFragmentEventContext().getFragmentEvent().getFragment().getId())
-        .map(id -> getFragmentFromListById(id, list))
-        .collect(Collectors.toList());
+  private Single<FragmentEvent> process(FragmentEventContextTaskAware fragmentCtx,
+      FairScheduler.Queue requestQueue) {
+    return fragmentCtx
+        .getTask()
+        .getRootNode()
+        .map(rootNode -> startTaskEngine(fragmentCtx, rootNode, requestQueue))
+        .orElseGet(() -> Single.just(fragmentCtx.getFragmentEventContext().getFragmentEvent()));
   }
 
-  private FragmentEvent getFragmentFromListById(String id, List<FragmentEvent> events) {
-    return events
-            .stream()
-            .filter(event -> id.equals(event.getFragment().getId()))
-            .findFirst()
-            .orElseThrow(() -> new IllegalStateException("Could not find fragment with id: " + id));
+  private Single<FragmentEvent> startTaskEngine(FragmentEventContextTaskAware fragment,
+      Node rootNode, FairScheduler.Queue requestQueue) {
+    Task task = fragment.getTask();
+    Supplier<Single<FragmentEvent>> execution = () -> taskEngine
+        .start(task.getName(), rootNode, fragment.getFragmentEventContext(), requestQueue);
+    return task.getResultCache()
+        .map(cache -> cache.execute(task.getName(), fragment.getFragmentEventContext(), execution))
+        .orElseGet(execution);
   }
 
   private List<FragmentEvent> traceEngineResults(List<FragmentEvent> results) {
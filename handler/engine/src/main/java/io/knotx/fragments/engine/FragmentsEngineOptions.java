@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+/**
+ * Fragments Engine tuning options.
+ */
+public class FragmentsEngineOptions {
+
+  public static final int DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_REQUEST = 128;
+  public static final int DEFAULT_MAX_CONCURRENT_BLOCKING_NODES = 0;
+
+  private boolean virtualThreads;
+  private int maxConcurrentFragmentsPerRequest = DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_REQUEST;
+  private int maxConcurrentBlockingNodes = DEFAULT_MAX_CONCURRENT_BLOCKING_NODES;
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Runs blocking actions on a virtual-thread-per-task executor instead of the Vert.x worker pool.
+   * Virtual threads require JDK 21+. On older runtimes the engine logs a warning and keeps using
+   * the worker pool. The default value is {@code false}.
+   *
+   * @param virtualThreads {@code true} to run blocking actions on virtual threads
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  public int getMaxConcurrentFragmentsPerRequest() {
+    return maxConcurrentFragmentsPerRequest;
+  }
+
+  /**
+   * Sets the maximum number of fragments of a single request processed concurrently. The default
+   * value is {@value DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_REQUEST}.
+   *
+   * @param maxConcurrentFragmentsPerRequest max number of fragments processed concurrently,
+   * greater than {@code 0}
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setMaxConcurrentFragmentsPerRequest(
+      int maxConcurrentFragmentsPerRequest) {
+    if (maxConcurrentFragmentsPerRequest <= 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrentFragmentsPerRequest must be greater than 0, got ["
+              + maxConcurrentFragmentsPerRequest + "]");
+    }
+    this.maxConcurrentFragmentsPerRequest = maxConcurrentFragmentsPerRequest;
+    return this;
+  }
+
+  public int getMaxConcurrentBlockingNodes() {
+    return maxConcurrentBlockingNodes;
+  }
+
+  /**
+   * Sets the maximum number of blocking nodes executed concurrently in the Vert.x instance. Pending
+   * nodes are interleaved between requests in round-robin order, so large pages can not delay
+   * small ones. The value {@code 0} (default) disables the limit.
+   *
+   * @param maxConcurrentBlockingNodes max number of blocking nodes executed concurrently, not
+   * negative
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setMaxConcurrentBlockingNodes(int maxConcurrentBlockingNodes) {
+    if (maxConcurrentBlockingNodes < 0) {
+      throw new IllegalArgumentException(
+          "maxConcurrentBlockingNodes must not be negative, got [" + maxConcurrentBlockingNodes
+              + "]");
+    }
+    this.maxConcurrentBlockingNodes = maxConcurrentBlockingNodes;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "FragmentsEngineOptions{" +
+        "virtualThreads=" + virtualThreads +
+        ", maxConcurrentFragmentsPerRequest=" + maxConcurrentFragmentsPerRequest +
+        ", maxConcurrentBlockingNodes=" + maxConcurrentBlockingNodes +
+        '}';
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Payload of a composite node branch. Reads fall through to the payload the composite node started
+ * with (shared read-only by all branches), writes are kept in the branch delta. So a branch does
+ * not copy the payload and only the entries it wrote are merged back.
+ */
+final class PayloadDelta extends AbstractMap<String, Object> {
+
+  private static final Object REMOVED = new Object();
+
+  private final Map<String, Object> base;
+  private final Map<String, Object> written = new LinkedHashMap<>();
+
+  PayloadDelta(Map<String, Object> base) {
+    this.base = base;
+  }
+
+  /**
+   * @return entries written by the branch, in the write order; removed entries are skipped
+   */
+  Map<String, Object> written() {
+    Map<String, Object> result = new LinkedHashMap<>(written);
+    result.values().removeIf(value -> value == REMOVED);
+    return result;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value = written.get(key);
+    if (value == null && !written.containsKey(key)) {
+      return base.get(key);
+    }
+    return value == REMOVED ? null : value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (written.containsKey(key)) {
+      return written.get(key) != REMOVED;
+    }
+    return base.containsKey(key);
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    Object previous = get(key);
+    written.put(key, value);
+    return previous;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (!containsKey(key)) {
+      return null;
+    }
+    Object previous = get(key);
+    written.put((String) key, REMOVED);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    keySet().forEach(key -> written.put(key, REMOVED));
+  }
+
+  /**
+   * @return read-only view of the branch payload, built on each call
+   */
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Map<String, Object> merged = new LinkedHashMap<>(base);
+    written.forEach((key, value) -> {
+      if (value == REMOVED) {
+        merged.remove(key);
+      } else {
+        merged.put(key, value);
+      }
+    });
+    return Collections.unmodifiableMap(merged).entrySet();
+  }
+}
@@ -22,20 +22,35 @@ public class Task {
 
   private final String name;
   private final Node rootNode;
+  private final TaskResultCache resultCache;
 
   public Task(String name) {
     this(name, null);
   }
 
   public Task(String name, Node rootNode) {
+    this(name, rootNode, null);
+  }
+
+  /**
+   * @param name task name
+   * @param rootNode graph root node
+   * @param resultCache cache of fragment results, {@code null} when results are not cached
+   */
+  public Task(String name, Node rootNode, TaskResultCache resultCache) {
     this.name = name;
     this.rootNode = rootNode;
+    this.resultCache = resultCache;
   }
 
   public Optional<Node> getRootNode() {
     return Optional.ofNullable(rootNode);
   }
 
+  public Optional<TaskResultCache> getResultCache() {
+    return Optional.ofNullable(resultCache);
+  }
+
   public String getName() {
     return name;
   }
@@ -45,6 +60,7 @@ public class Task {
     return "Task{" +
         "name='" + name + '\'' +
         ", rootNode=" + rootNode +
+        ", resultCache=" + resultCache +
         '}';
   }
 }
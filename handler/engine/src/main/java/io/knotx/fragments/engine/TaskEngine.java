@@ -20,66 +20,220 @@ import io.knotx.fragments.engine.graph.SingleNode;
 import io.knotx.fragments.engine.graph.CompositeNode;
 import io.knotx.fragments.engine.graph.Node;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.reactivex.Completable;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.reactivex.schedulers.Schedulers;
 import io.vertx.reactivex.RxHelper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 class TaskEngine {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskEngine.class);
 
   private final Vertx vertx;
+  private final Scheduler blockingScheduler;
+  private final ExecutorService virtualThreadExecutor;
+  private final boolean virtualThreads;
+  private final FairScheduler fairScheduler;
 
   TaskEngine(Vertx vertx) {
+    this(vertx, new FragmentsEngineOptions());
+  }
+
+  TaskEngine(Vertx vertx, FragmentsEngineOptions options) {
     this.vertx = vertx;
+    this.virtualThreadExecutor = options.isVirtualThreads() ? virtualThreadExecutor() : null;
+    this.virtualThreads = virtualThreadExecutor != null;
+    this.blockingScheduler = virtualThreads
+        ? Schedulers.from(virtualThreadExecutor)
+        : RxHelper.blockingScheduler(vertx);
+    this.fairScheduler = options.getMaxConcurrentBlockingNodes() > 0
+        ? FairScheduler.shared(vertx, options.getMaxConcurrentBlockingNodes())
+        : null;
+    if (virtualThreads) {
+      // the executor lives as long as the verticle creating the engine
+      vertx.getOrCreateContext().addCloseHook(completion -> {
+        close();
+        completion.handle(Future.succeededFuture());
+      });
+    }
+  }
+
+  /**
+   * Shuts down the virtual thread executor. Blocking nodes already started are completed.
+   */
+  void close() {
+    if (virtualThreadExecutor != null) {
+      virtualThreadExecutor.shutdown();
+    }
+  }
+
+  /**
+   * @return new request queue for the fair scheduler or {@code null} when it is disabled
+   */
+  FairScheduler.Queue newRequestQueue() {
+    return fairScheduler == null ? null : fairScheduler.newQueue();
   }
 
   Single<FragmentEvent> start(String taskName, Node rootNode, FragmentEventContext fec) {
-    TaskExecutionContext executionContext = new TaskExecutionContext(taskName, rootNode, fec);
+    return start(taskName, rootNode, fec, newRequestQueue());
+  }
+
+  Single<FragmentEvent> start(String taskName, Node rootNode, FragmentEventContext fec,
+      FairScheduler.Queue requestQueue) {
+    TaskExecutionContext executionContext = new TaskExecutionContext(taskName, rootNode, fec,
+        vertx.getOrCreateContext(), requestQueue);
 
     return processTask(executionContext)
         .map(ctx -> ctx.getFragmentEventContext().getFragmentEvent());
   }
 
   private Single<TaskExecutionContext> processTask(TaskExecutionContext context) {
-    traceEvent(context);
-
-    return context.hasNext()
-            ? getResult(context).flatMap(fragmentResult -> {
-                context.updateResult(fragmentResult);
-                return processTask(context);
-            })
-            : Single.just(context);
+    return TaskInterpreter.interpret(context, this::getResult);
   }
 
-  private Single<TaskExecutionContext> processTask(TaskExecutionContext context, Node currentNode) {
-    return processTask(new TaskExecutionContext(context, currentNode));
+  private Single<TaskExecutionContext> processTask(TaskExecutionContext context, Node currentNode,
+      Map<String, Object> payloadBase) {
+    return processTask(new TaskExecutionContext(context, currentNode, payloadBase));
   }
 
   private Single<FragmentResult> getResult(TaskExecutionContext context) {
+    traceEvent(context);
     return NodeType.COMPOSITE == context.getCurrentNode().getType()
             ? mapReduce(context)
             : execute(context);
   }
 
   private Single<FragmentResult> execute(TaskExecutionContext context) {
-    return Single.just(context.getCurrentNode())
-        .map(SingleNode.class::cast)
-        .observeOn(RxHelper.blockingScheduler(vertx))
-        .flatMap(gn -> gn.doAction(context.fragmentContextInstance()))
+    SingleNode node = (SingleNode) context.getCurrentNode();
+    if (context.isDeadlineExceeded()) {
+      // the result would arrive after the request budget, the node is not invoked
+      return Single.<FragmentResult>error(
+          new ReplyException(ReplyFailure.TIMEOUT, "Request deadline exceeded"))
+          .onErrorResumeNext(context::handleError);
+    }
+    if (fairScheduler != null && node.isBlocking()) {
+      return fairScheduler.execute(context.getRequestQueue(), () -> execute(context, node));
+    }
+    return execute(context, node);
+  }
+
+  private Single<FragmentResult> execute(TaskExecutionContext context, SingleNode node) {
+    Single<FragmentResult> result = schedule(node, context.getVertxContext())
+        .flatMap(gn -> gn.doAction(context.fragmentContextInstance()));
+    if (virtualThreads && node.isBlocking()) {
+      // marshal results back onto the originating context
+      result = result
+          .flatMap(fr -> onContext(fr, context.getVertxContext()))
+          .onErrorResumeNext(error -> onContext(error, context.getVertxContext())
+              .<FragmentResult>flatMap(Single::error));
+    }
+    return result
         .doOnSuccess(fr -> context.handleSuccess(fr.getTransition()))
         .onErrorResumeNext(context::handleError);
   }
 
+  /**
+   * Blocking nodes are moved to the blocking scheduler (the worker pool or virtual threads,
+   * depending on {@link FragmentsEngineOptions}). Non-blocking nodes are invoked on the event loop
+   * context the task was started on - directly when it is the current context, otherwise the
+   * invocation is scheduled on it.
+   */
+  private Single<SingleNode> schedule(SingleNode node, Context vertxContext) {
+    return node.isBlocking()
+        ? Single.just(node).observeOn(blockingScheduler)
+        : onContext(node, vertxContext);
+  }
+
+  private <T> Single<T> onContext(T item, Context vertxContext) {
+    if (Vertx.currentContext() == vertxContext) {
+      return Single.just(item);
+    }
+    return Single.create(emitter -> vertxContext.runOnContext(v -> emitter.onSuccess(item)));
+  }
+
+  /**
+   * Creates a virtual-thread-per-task executor. The engine is compiled for older JDKs, so the JDK
+   * 21 factory method is looked up reflectively.
+   */
+  private static ExecutorService virtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.warn("Virtual threads are not supported by this JVM [{}], blocking actions are "
+          + "executed on the worker pool.", System.getProperty("java.version"));
+      return null;
+    }
+  }
+
   private Single<FragmentResult> mapReduce(TaskExecutionContext context) {
     CompositeNode node = (CompositeNode) context.getCurrentNode();
-    return Observable.fromIterable(node.getNodes())
-        .flatMap(graphNode -> processTask(context, graphNode).toObservable())
-        .reduce(context, TaskExecutionContext::merge)
-        .map(TaskExecutionContext::toFragmentResult);
+    List<Node> subgraphs = node.getNodes();
+    Map<String, Object> payloadBase = context.payloadSnapshot();
+
+    return Single.defer(() -> {
+      // subgraphs run in parallel, results are merged in the declaration order
+      AtomicReferenceArray<TaskExecutionContext> results =
+          new AtomicReferenceArray<>(subgraphs.size());
+      // results arriving after the merge started are ignored
+      AtomicBoolean completed = new AtomicBoolean();
+
+      Completable processing = Observable.range(0, subgraphs.size())
+          .flatMapCompletable(index -> processTask(context, subgraphs.get(index), payloadBase)
+              .doOnSuccess(result -> {
+                if (!completed.get()) {
+                  results.set(index, result);
+                }
+              })
+              .ignoreElement());
+      if (node.getTimeout() > 0) {
+        // unfinished subgraphs are disposed when the timeout expires
+        processing = processing
+            .ambWith(timer(node.getTimeout(), context.getVertxContext()));
+      }
+      return processing.andThen(Single.fromCallable(() -> {
+        completed.set(true);
+        boolean partial = false;
+        for (int i = 0; i < subgraphs.size(); i++) {
+          TaskExecutionContext result = results.get(i);
+          if (result != null) {
+            context.merge(result);
+          } else {
+            context.handleAbandoned(subgraphs.get(i));
+            partial = true;
+          }
+        }
+        return partial
+            ? context.toPartialFragmentResult(node.getTimeoutTransition())
+            : context.toFragmentResult();
+      }));
+    });
+  }
+
+  /**
+   * Completes on the event loop context the task was started on when the delay expires. The Vert.x
+   * timer is cancelled when the completable is disposed.
+   */
+  private Completable timer(long delay, Context vertxContext) {
+    return Completable.create(emitter -> vertxContext.runOnContext(v -> {
+      long timerId = vertx.setTimer(delay, id -> emitter.onComplete());
+      emitter.setCancellable(() -> vertx.cancelTimer(timerId));
+    }));
   }
 
   private void traceEvent(TaskExecutionContext context) {
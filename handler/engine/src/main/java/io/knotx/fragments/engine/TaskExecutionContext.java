@@ -27,34 +27,86 @@ import io.knotx.fragments.handler.api.exception.ActionFatalException;
 import io.knotx.server.api.context.ClientRequest;
 import io.reactivex.Single;
 import io.reactivex.SingleSource;
+import io.vertx.core.Context;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.logging.Logger;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.LoggerFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 class TaskExecutionContext {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskExecutionContext.class);
 
+  private static final String PAYLOAD_KEY = "payload";
+
   private final String taskName;
   private final FragmentEventContext fragmentEventContext;
+  private final Context vertxContext;
+  private final FairScheduler.Queue requestQueue;
+  // payload entries and body the branch started with, null for task root contexts
+  private final Map<String, Object> payloadBase;
+  private final String bodyBase;
+  // fragment the branch started with and its payload delta, null for task root contexts
+  private final Fragment branchFragment;
+  private final PayloadDelta payloadDelta;
   private Node currentNode;
 
   TaskExecutionContext(String taskName, Node graphRoot,
-      FragmentEventContext fragmentEventContext) {
+      FragmentEventContext fragmentEventContext, Context vertxContext,
+      FairScheduler.Queue requestQueue) {
     this.taskName = taskName;
     this.currentNode = graphRoot;
     this.fragmentEventContext = fragmentEventContext;
+    this.vertxContext = vertxContext;
+    this.requestQueue = requestQueue;
+    this.payloadBase = null;
+    this.bodyBase = null;
+    this.branchFragment = null;
+    this.payloadDelta = null;
   }
 
-  TaskExecutionContext(TaskExecutionContext context, Node currentNode) {
-    Fragment fragment = context.getFragmentEventContext().getFragmentEvent().getFragment();
+  /**
+   * Creates a composite node branch context. The branch gets its own fragment instance with a
+   * payload delta on top of the payload base, so parallel branches never write to the same payload
+   * and the base is not copied.
+   *
+   * @param context parent context
+   * @param currentNode branch root node
+   * @param payloadBase payload snapshot shared (read-only) by all branches of the composite node
+   */
+  TaskExecutionContext(TaskExecutionContext context, Node currentNode,
+      Map<String, Object> payloadBase) {
+    Fragment parent = context.getFragmentEventContext().getFragmentEvent().getFragment();
+    PayloadDelta delta = new PayloadDelta(payloadBase);
+    Fragment fragment = new Fragment(parent.toJson().put(PAYLOAD_KEY, new JsonObject(delta)));
     FragmentEvent fragmentEvent = new FragmentEvent(fragment);
     ClientRequest clientRequest = context.getFragmentEventContext().getClientRequest();
 
-    this.fragmentEventContext = new FragmentEventContext(fragmentEvent, clientRequest);
+    this.fragmentEventContext = new FragmentEventContext(fragmentEvent, clientRequest,
+        context.getFragmentEventContext().getDeadline());
     this.currentNode = currentNode;
     this.taskName = context.taskName;
+    this.vertxContext = context.vertxContext;
+    this.requestQueue = context.requestQueue;
+    this.payloadBase = payloadBase;
+    this.bodyBase = parent.getBody();
+    this.branchFragment = fragment;
+    this.payloadDelta = delta;
+  }
+
+  /**
+   * @return read-only snapshot of the current fragment payload, taken once per composite node and
+   * shared by its branches
+   */
+  Map<String, Object> payloadSnapshot() {
+    Fragment fragment = fragmentEventContext.getFragmentEvent().getFragment();
+    return Collections.unmodifiableMap(fragment.getPayload().getMap());
   }
 
   FragmentEventContext getFragmentEventContext() {
@@ -64,7 +116,24 @@ class TaskExecutionContext {
   FragmentContext fragmentContextInstance() {
     return new FragmentContext(
         fragmentEventContext.getFragmentEvent().getFragment(),
-        fragmentEventContext.getClientRequest());
+        fragmentEventContext.getClientRequest(),
+        fragmentEventContext.getDeadline());
+  }
+
+  /**
+   * @return {@code true} if the request deadline has already passed
+   */
+  boolean isDeadlineExceeded() {
+    long deadline = fragmentEventContext.getDeadline();
+    return deadline != FragmentContext.NO_DEADLINE && System.currentTimeMillis() >= deadline;
+  }
+
+  Context getVertxContext() {
+    return vertxContext;
+  }
+
+  FairScheduler.Queue getRequestQueue() {
+    return requestQueue;
   }
 
   Node getCurrentNode() {
@@ -100,11 +169,25 @@ class TaskExecutionContext {
     final FragmentEvent fragmentEvent1 = getFragmentEventContext().getFragmentEvent();
     final FragmentEvent fragmentEvent2 = other.getFragmentEventContext().getFragmentEvent();
 
-    //reduce fragment body and payload
+    //reduce fragment body and payload, only entries changed by the branch are written
     final Fragment fragment = fragmentEvent1.getFragment();
     final Fragment fragment2 = fragmentEvent2.getFragment();
-    fragment.mergeInPayload(fragment2.getPayload());
-    fragment.setBody(fragment2.getBody());
+    if (other.payloadDelta == null) {
+      fragment.mergeInPayload(fragment2.getPayload());
+    } else if (fragment2 == other.branchFragment) {
+      other.payloadDelta.written().forEach(fragment::appendPayload);
+    } else {
+      // the fragment was replaced (e.g. by a knot reply over the event bus), so writes are not
+      // tracked and the entries are compared with the base by value
+      fragment2.getPayload().getMap().forEach((key, value) -> {
+        if (!sameValue(other.payloadBase.get(key), value)) {
+          fragment.appendPayload(key, value);
+        }
+      });
+    }
+    if (other.payloadBase == null || !Objects.equals(other.bodyBase, fragment2.getBody())) {
+      fragment.setBody(fragment2.getBody());
+    }
 
     //reduce status and logs
     if (Status.FAILURE != fragmentEvent1.getStatus()) {
@@ -115,6 +198,46 @@ class TaskExecutionContext {
     return this;
   }
 
+  /**
+   * Completes the composite node when its timeout expired. Completed subgraphs are already merged.
+   * When none of them failed, the timeout transition is returned.
+   *
+   * @param timeoutTransition composite node timeout transition
+   * @return composite node result
+   */
+  FragmentResult toPartialFragmentResult(String timeoutTransition) {
+    FragmentEvent fragmentEvent = fragmentEventContext.getFragmentEvent();
+    if (Status.FAILURE == fragmentEvent.getStatus()) {
+      return toFragmentResult();
+    }
+    handleSuccess(timeoutTransition);
+    return new FragmentResult(fragmentEvent.getFragment(), timeoutTransition);
+  }
+
+  /**
+   * Logs the subgraph that was abandoned when the composite node timeout expired.
+   *
+   * @param subgraph abandoned subgraph root node
+   */
+  void handleAbandoned(Node subgraph) {
+    fragmentEventContext.getFragmentEvent().log(EventLogEntry.timeout(taskName, subgraph.getId()));
+  }
+
+  private static boolean sameValue(Object base, Object value) {
+    return Objects.equals(json(base), json(value));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object json(Object value) {
+    if (value instanceof Map) {
+      return new JsonObject((Map<String, Object>) value);
+    }
+    if (value instanceof List) {
+      return new JsonArray((List<Object>) value);
+    }
+    return value;
+  }
+
   FragmentResult toFragmentResult() {
     FragmentEvent fragmentEvent = fragmentEventContext.getFragmentEvent();
     Status status = fragmentEvent.getStatus();
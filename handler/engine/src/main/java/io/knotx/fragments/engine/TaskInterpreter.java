@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.SerialDisposable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Walks the task graph node by node in a loop. A single instance is the continuation of the whole
+ * task: it receives each node result, updates the context and starts the next node from the loop
+ * instead of a nested {@code flatMap}. Nodes completing synchronously are trampolined, so long
+ * transition chains neither grow the stack nor build nested subscriptions.
+ */
+final class TaskInterpreter extends AtomicInteger implements SingleObserver<FragmentResult> {
+
+  private final TaskExecutionContext context;
+  private final Function<TaskExecutionContext, Single<FragmentResult>> nodeProcessor;
+  private final SingleEmitter<TaskExecutionContext> emitter;
+  private final SerialDisposable current = new SerialDisposable();
+
+  private TaskInterpreter(TaskExecutionContext context,
+      Function<TaskExecutionContext, Single<FragmentResult>> nodeProcessor,
+      SingleEmitter<TaskExecutionContext> emitter) {
+    this.context = context;
+    this.nodeProcessor = nodeProcessor;
+    this.emitter = emitter;
+  }
+
+  /**
+   * @param context task execution context
+   * @param nodeProcessor processes the current node of the context
+   * @return the task context when there is no next node to process
+   */
+  static Single<TaskExecutionContext> interpret(TaskExecutionContext context,
+      Function<TaskExecutionContext, Single<FragmentResult>> nodeProcessor) {
+    return Single.create(emitter -> {
+      TaskInterpreter interpreter = new TaskInterpreter(context, nodeProcessor, emitter);
+      emitter.setDisposable(interpreter.current);
+      interpreter.next();
+    });
+  }
+
+  @Override
+  public void onSubscribe(Disposable d) {
+    current.replace(d);
+  }
+
+  @Override
+  public void onSuccess(FragmentResult fragmentResult) {
+    try {
+      context.updateResult(fragmentResult);
+    } catch (Exception e) {
+      emitter.onError(e);
+      return;
+    }
+    next();
+  }
+
+  @Override
+  public void onError(Throwable e) {
+    emitter.onError(e);
+  }
+
+  private void next() {
+    if (getAndIncrement() != 0) {
+      // the node completed synchronously, the running loop processes the next one
+      return;
+    }
+    do {
+      if (emitter.isDisposed()) {
+        return;
+      }
+      if (!context.hasNext()) {
+        emitter.onSuccess(context);
+        return;
+      }
+      Single<FragmentResult> result;
+      try {
+        result = nodeProcessor.apply(context);
+      } catch (Exception e) {
+        emitter.onError(e);
+        return;
+      }
+      result.subscribe(this);
+    } while (decrementAndGet() != 0);
+  }
+}
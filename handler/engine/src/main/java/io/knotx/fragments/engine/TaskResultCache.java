@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.knotx.fragments.engine.FragmentEvent.Status;
+import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches results (body and payload) of successfully processed fragments. A fragment whose key is
+ * cached is not processed by the graph. Concurrent executions with the same key are collapsed, only
+ * the first one is processed and the others get its result. When it fails, they are processed on
+ * their own.
+ */
+public class TaskResultCache {
+
+  static final String RESULT_CACHE_NODE = "_result_cache";
+
+  private final Function<FragmentEventContext, String> keyFunction;
+  private final Cache<String, CachedResult> cache;
+  private final Map<String, SingleSubject<CachedResult>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * @param keyFunction produces cache key from fragment and request data
+   * @param ttl time to live of cached results in milliseconds
+   * @param maximumSize maximum number of cached results
+   */
+  public TaskResultCache(Function<FragmentEventContext, String> keyFunction, long ttl,
+      long maximumSize) {
+    this.keyFunction = keyFunction;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  Single<FragmentEvent> execute(String taskName, FragmentEventContext fec,
+      Supplier<Single<FragmentEvent>> execution) {
+    return Single.defer(() -> {
+      String key = keyFunction.apply(fec);
+      CachedResult cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return Single.just(cached.applyTo(taskName, fec.getFragmentEvent()));
+      }
+      SingleSubject<CachedResult> leader = SingleSubject.create();
+      SingleSubject<CachedResult> current = inFlight.putIfAbsent(key, leader);
+      if (current != null) {
+        Context context = Vertx.currentContext();
+        return current
+            .flatMap(result -> onContext(result, context))
+            .flatMap(result -> result == CachedResult.NONE
+                ? execution.get()
+                : Single.just(result.applyTo(taskName, fec.getFragmentEvent())));
+      }
+      return execution.get()
+          .doOnSuccess(event -> {
+            CachedResult result = CachedResult.of(event);
+            if (result != CachedResult.NONE) {
+              cache.put(key, result);
+            }
+            complete(key, leader, result);
+          })
+          .doOnError(error -> complete(key, leader, CachedResult.NONE))
+          .doOnDispose(() -> complete(key, leader, CachedResult.NONE));
+    });
+  }
+
+  private void complete(String key, SingleSubject<CachedResult> leader, CachedResult result) {
+    inFlight.remove(key, leader);
+    leader.onSuccess(result);
+  }
+
+  private static <T> Single<T> onContext(T item, Context context) {
+    if (context == null || Vertx.currentContext() == context) {
+      return Single.just(item);
+    }
+    return Single.create(emitter -> context.runOnContext(v -> emitter.onSuccess(item)));
+  }
+
+  @Override
+  public String toString() {
+    return "TaskResultCache{" +
+        "size=" + cache.size() +
+        ", inFlight=" + inFlight.size() +
+        '}';
+  }
+
+  private static class CachedResult {
+
+    private static final CachedResult NONE = new CachedResult(null, null);
+
+    private final String body;
+    private final JsonObject payload;
+
+    private CachedResult(String body, JsonObject payload) {
+      this.body = body;
+      this.payload = payload;
+    }
+
+    static CachedResult of(FragmentEvent event) {
+      if (event.getStatus() != Status.SUCCESS) {
+        return NONE;
+      }
+      return new CachedResult(event.getFragment().getBody(),
+          event.getFragment().getPayload().copy());
+    }
+
+    FragmentEvent applyTo(String taskName, FragmentEvent event) {
+      event.getFragment()
+          .setBody(body)
+          .mergeInPayload(payload.copy());
+      return event
+          .setStatus(Status.SUCCESS)
+          .log(EventLogEntry.success(taskName, RESULT_CACHE_NODE, SUCCESS_TRANSITION));
+    }
+  }
+}
@@ -27,12 +27,32 @@ public class CompositeNode implements Node {
   private final List<Node> nodes;
   private final Node onSuccess;
   private final Node onError;
+  private final long timeout;
+  private final String timeoutTransition;
+  private final Node onTimeout;
 
   public CompositeNode(String id, List<Node> nodes, Node onSuccess, Node onError) {
+    this(id, nodes, onSuccess, onError, 0, null, null);
+  }
+
+  /**
+   * @param id node identifier
+   * @param nodes subgraphs evaluated in parallel
+   * @param onSuccess next node when all subgraphs end successfully
+   * @param onError next node when any subgraph fails
+   * @param timeout maximum time in milliseconds to wait for subgraphs, {@code 0} means no limit
+   * @param timeoutTransition transition returned when the timeout expires
+   * @param onTimeout next node when the timeout expires
+   */
+  public CompositeNode(String id, List<Node> nodes, Node onSuccess, Node onError, long timeout,
+      String timeoutTransition, Node onTimeout) {
     this.id = id;
     this.nodes = nodes;
     this.onSuccess = onSuccess;
     this.onError = onError;
+    this.timeout = timeout;
+    this.timeoutTransition = timeoutTransition;
+    this.onTimeout = onTimeout;
   }
 
   @Override
@@ -47,6 +67,8 @@ public class CompositeNode implements Node {
       nextNode = onError;
     } else if (SUCCESS_TRANSITION.equals(transition)) {
       nextNode = onSuccess;
+    } else if (timeoutTransition != null && timeoutTransition.equals(transition)) {
+      nextNode = onTimeout;
     }
     return Optional.ofNullable(nextNode);
   }
@@ -60,6 +82,14 @@ public class CompositeNode implements Node {
     return nodes;
   }
 
+  public long getTimeout() {
+    return timeout;
+  }
+
+  public String getTimeoutTransition() {
+    return timeoutTransition;
+  }
+
   @Override
   public String toString() {
     return "CompositeNode{" +
@@ -67,6 +97,9 @@ public class CompositeNode implements Node {
         ", nodes=" + nodes +
         ", onSuccess=" + onSuccess +
         ", onError=" + onError +
+        ", timeout=" + timeout +
+        ", timeoutTransition='" + timeoutTransition + '\'' +
+        ", onTimeout=" + onTimeout +
         '}';
   }
 }
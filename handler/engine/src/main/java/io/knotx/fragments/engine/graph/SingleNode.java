@@ -24,11 +24,13 @@ import java.util.function.Function;
 
 public class SingleNode implements Node {
 
-  private String id;
+  private final String id;
 
-  private Function<FragmentContext, Single<FragmentResult>> action;
+  private final Function<FragmentContext, Single<FragmentResult>> action;
 
-  private Map<String, Node> transitions;
+  private final Map<String, Node> transitions;
+
+  private final boolean blocking;
 
   public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action) {
     this(id, action, null);
@@ -36,9 +38,22 @@ public class SingleNode implements Node {
 
   public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action,
       Map<String, Node> transitions) {
+    this(id, action, transitions, true);
+  }
+
+  /**
+   * @param id node identifier
+   * @param action action applied to the fragment
+   * @param transitions outgoing transitions
+   * @param blocking {@code false} if the action never blocks the calling thread, so it can be
+   * invoked on the event loop
+   */
+  public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action,
+      Map<String, Node> transitions, boolean blocking) {
     this.id = id;
     this.action = action;
     this.transitions = transitions;
+    this.blocking = blocking;
   }
 
   @Override
@@ -56,6 +71,10 @@ public class SingleNode implements Node {
     return NodeType.SINGLE;
   }
 
+  public boolean isBlocking() {
+    return blocking;
+  }
+
   public Single<FragmentResult> doAction(FragmentContext fragmentContext) {
     return action.apply(fragmentContext);
   }
@@ -66,6 +85,7 @@ public class SingleNode implements Node {
         "id='" + id + '\'' +
         ", action=" + action +
         ", transitions=" + transitions +
+        ", blocking=" + blocking +
         '}';
   }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FairSchedulerTest {
+
+  private final List<String> started = new ArrayList<>();
+
+  @Test
+  @DisplayName("Expect no more work executed than max concurrency.")
+  void expectConcurrencyLimit() {
+    // given
+    FairScheduler tested = new FairScheduler(2);
+    FairScheduler.Queue queue = tested.newQueue();
+    SingleSubject<String> first = SingleSubject.create();
+
+    // when
+    tested.execute(queue, work("first", first)).subscribe();
+    tested.execute(queue, work("second", SingleSubject.create())).subscribe();
+    tested.execute(queue, work("third", SingleSubject.create())).subscribe();
+
+    // then
+    assertEquals(Arrays.asList("first", "second"), started);
+    first.onSuccess("first");
+    assertEquals(Arrays.asList("first", "second", "third"), started);
+  }
+
+  @Test
+  @DisplayName("Expect requests queues are served in round-robin order.")
+  void expectRoundRobin() {
+    // given
+    FairScheduler tested = new FairScheduler(1);
+    FairScheduler.Queue large = tested.newQueue();
+    FairScheduler.Queue small = tested.newQueue();
+    SingleSubject<String> large1 = SingleSubject.create();
+    SingleSubject<String> large2 = SingleSubject.create();
+    SingleSubject<String> small1 = SingleSubject.create();
+
+    tested.execute(large, work("large1", large1)).subscribe();
+    tested.execute(large, work("large2", large2)).subscribe();
+    tested.execute(large, work("large3", SingleSubject.create())).subscribe();
+    tested.execute(small, work("small1", small1)).subscribe();
+
+    // when
+    large1.onSuccess("large1");
+    large2.onSuccess("large2");
+    small1.onSuccess("small1");
+
+    // then
+    assertEquals(Arrays.asList("large1", "large2", "small1", "large3"), started);
+  }
+
+  @Test
+  @DisplayName("Expect permit released when pending work is disposed.")
+  void expectPermitReleasedWhenDisposed() {
+    // given
+    FairScheduler tested = new FairScheduler(1);
+    FairScheduler.Queue queue = tested.newQueue();
+    SingleSubject<String> first = SingleSubject.create();
+    tested.execute(queue, work("first", first)).subscribe();
+    tested.execute(queue, work("second", SingleSubject.create())).subscribe().dispose();
+    tested.execute(queue, work("third", SingleSubject.create())).subscribe();
+
+    // when
+    first.onSuccess("first");
+
+    // then
+    assertEquals(Arrays.asList("first", "third"), started);
+  }
+
+  @Test
+  @DisplayName("Expect a long queue of disposed work drained without recursion.")
+  void expectDisposedWorkDrainedIteratively() {
+    // given
+    FairScheduler tested = new FairScheduler(1);
+    FairScheduler.Queue queue = tested.newQueue();
+    SingleSubject<String> first = SingleSubject.create();
+    tested.execute(queue, work("first", first)).subscribe();
+    for (int i = 0; i < 100_000; i++) {
+      tested.execute(queue, work("disposed", SingleSubject.create())).subscribe().dispose();
+    }
+    tested.execute(queue, work("last", SingleSubject.create())).subscribe();
+
+    // when
+    first.onSuccess("first");
+
+    // then
+    assertEquals(Arrays.asList("first", "last"), started);
+  }
+
+  private Callable<Single<String>> work(String name, SingleSubject<String> result) {
+    return () -> {
+      started.add(name);
+      return result;
+    };
+  }
+}
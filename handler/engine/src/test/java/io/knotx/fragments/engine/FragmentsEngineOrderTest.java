@@ -35,6 +35,8 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -77,6 +79,36 @@ class FragmentsEngineOrderTest {
     }), testContext);
   }
 
+  @Test
+  @DisplayName("Expect many fragments in incoming order when they complete in reverse order")
+  void expectCorrectOrderOfManyFragments(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    int numberOfFragments = 20;
+    List<FragmentEventContextTaskAware> events = IntStream.range(0, numberOfFragments)
+        .mapToObj(index -> initFragmentEventContextTaskAware("fragment " + index,
+            delayedOperation((numberOfFragments - index) * 10)))
+        .collect(Collectors.toList());
+
+    // when
+    Single<List<FragmentEvent>> result = new FragmentsEngine(vertx).execute(events);
+
+    // then
+    verifyExecution(result, fragmentEvents -> testContext.verify(() -> {
+      assertEquals(numberOfFragments, fragmentEvents.size());
+      for (int i = 0; i < numberOfFragments; i++) {
+        assertEquals("fragment " + i, fragmentEvents.get(i).getFragment().getBody());
+      }
+    }), testContext);
+  }
+
+  private Function<FragmentContext, Single<FragmentResult>> delayedOperation(
+      long delayInMillis) {
+    return fragmentContext -> Single.just(
+        new FragmentResult(fragmentContext.getFragment(), FragmentResult.SUCCESS_TRANSITION))
+        .delay(delayInMillis, TimeUnit.MILLISECONDS);
+  }
+
   private FragmentEventContextTaskAware initFragmentEventContextTaskAware(
       String fragmentBody,
       Function<FragmentContext, Single<FragmentResult>> operation) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.FragmentEvent.Status;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class FragmentsEngineResultCacheTest {
+
+  private static final String TASK_NAME = "task";
+  private static final JsonObject EXPECTED_PAYLOAD = new JsonObject().put("key", "value");
+
+  @Test
+  @DisplayName("Expect concurrent fragments with the same key processed once.")
+  void expectConcurrentExecutionsCollapsed(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Task task = cachedTask(countingOperation(invocations, 100));
+    List<FragmentEventContextTaskAware> events = Arrays.asList(
+        eventContext(task, "body"),
+        eventContext(task, "body"));
+
+    // when
+    new FragmentsEngine(vertx).execute(events).subscribe(
+        fragmentEvents -> {
+          // then
+          testContext.verify(() -> {
+            assertEquals(1, invocations.get());
+            fragmentEvents.forEach(event -> {
+              assertEquals(Status.SUCCESS, event.getStatus());
+              assertEquals(EXPECTED_PAYLOAD,
+                  event.getFragment().getPayload().getJsonObject("result"));
+            });
+          });
+          testContext.completeNow();
+        }, testContext::failNow);
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect cached result applied to the next request without processing the graph.")
+  void expectCachedResult(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Task task = cachedTask(countingOperation(invocations, 0));
+    FragmentsEngine engine = new FragmentsEngine(vertx);
+
+    // when
+    engine.execute(Collections.singletonList(eventContext(task, "body")))
+        .flatMap(first -> engine.execute(Collections.singletonList(eventContext(task, "body"))))
+        .subscribe(
+            fragmentEvents -> {
+              // then
+              testContext.verify(() -> {
+                FragmentEvent event = fragmentEvents.get(0);
+                assertEquals(1, invocations.get());
+                assertEquals(Status.SUCCESS, event.getStatus());
+                assertEquals(EXPECTED_PAYLOAD,
+                    event.getFragment().getPayload().getJsonObject("result"));
+                assertEquals(TaskResultCache.RESULT_CACHE_NODE,
+                    event.getLogAsJson().getJsonArray("operations").getJsonObject(0)
+                        .getString("action"));
+              });
+              testContext.completeNow();
+            }, testContext::failNow);
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @Test
+  @DisplayName("Expect failed result not cached.")
+  void expectFailureNotCached(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    Task task = cachedTask(fragmentContext -> {
+      invocations.incrementAndGet();
+      return Single.error(new IllegalStateException());
+    });
+    FragmentsEngine engine = new FragmentsEngine(vertx);
+
+    // when
+    engine.execute(Collections.singletonList(eventContext(task, "body")))
+        .flatMap(first -> engine.execute(Collections.singletonList(eventContext(task, "body"))))
+        .subscribe(
+            fragmentEvents -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals(2, invocations.get());
+                assertEquals(Status.FAILURE, fragmentEvents.get(0).getStatus());
+              });
+              testContext.completeNow();
+            }, testContext::failNow);
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private Function<FragmentContext, Single<FragmentResult>> countingOperation(
+      AtomicInteger invocations, long delayInMillis) {
+    return fragmentContext -> {
+      invocations.incrementAndGet();
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload("result", EXPECTED_PAYLOAD);
+      return Single.just(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .delay(delayInMillis, TimeUnit.MILLISECONDS);
+    };
+  }
+
+  private Task cachedTask(Function<FragmentContext, Single<FragmentResult>> operation) {
+    Node rootNode = new SingleNode("id", operation, Collections.emptyMap());
+    TaskResultCache resultCache = new TaskResultCache(
+        fec -> fec.getFragmentEvent().getFragment().getBody(), 10000, 100);
+    return new Task(TASK_NAME, rootNode, resultCache);
+  }
+
+  private FragmentEventContextTaskAware eventContext(Task task, String body) {
+    Fragment fragment = new Fragment("snippet", new JsonObject(), body);
+    return new FragmentEventContextTaskAware(task,
+        new FragmentEventContext(new FragmentEvent(fragment), new ClientRequest()));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PayloadDeltaTest {
+
+  @Test
+  @DisplayName("Expect base entries read and only written entries in the delta.")
+  void expectOnlyWrittenEntriesInDelta() {
+    // given
+    Map<String, Object> base = new LinkedHashMap<>();
+    base.put("read", "base value");
+    base.put("overwritten", "base value");
+    PayloadDelta tested = new PayloadDelta(Collections.unmodifiableMap(base));
+
+    // when
+    JsonObject payload = new JsonObject(tested).put("overwritten", "branch value");
+
+    // then
+    assertEquals("base value", payload.getString("read"));
+    assertEquals("branch value", payload.getString("overwritten"));
+    assertEquals(Collections.singletonMap("overwritten", "branch value"), tested.written());
+    assertEquals("base value", base.get("overwritten"));
+  }
+
+  @Test
+  @DisplayName("Expect removed base entries hidden and not in the delta.")
+  void expectRemovedEntriesHidden() {
+    // given
+    PayloadDelta tested = new PayloadDelta(Collections.singletonMap("key", "base value"));
+
+    // when
+    new JsonObject(tested).remove("key");
+
+    // then
+    assertFalse(tested.containsKey("key"));
+    assertNull(tested.get("key"));
+    assertEquals(0, tested.size());
+    assertEquals(Collections.emptyMap(), tested.written());
+  }
+
+  @Test
+  @DisplayName("Expect payload copy containing base and written entries.")
+  void expectCopyContainsAllEntries() {
+    // given
+    PayloadDelta tested = new PayloadDelta(Collections.singletonMap("base", "base value"));
+
+    // when
+    JsonObject copy = new JsonObject(tested).put("written", "branch value").copy();
+
+    // then
+    assertEquals(new JsonObject().put("base", "base value").put("written", "branch value"), copy);
+  }
+}
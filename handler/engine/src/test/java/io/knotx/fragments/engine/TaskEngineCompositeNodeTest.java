@@ -19,11 +19,16 @@ import static io.knotx.fragments.engine.FragmentEventLogVerifier.verifyAllLogEnt
 import static io.knotx.fragments.engine.FragmentEventLogVerifier.verifyLogEntries;
 import static io.knotx.fragments.engine.helpers.TestFunction.appendBody;
 import static io.knotx.fragments.engine.helpers.TestFunction.appendPayload;
+import static io.knotx.fragments.engine.helpers.TestFunction.appendPayloadBasingOnContext;
 import static io.knotx.fragments.engine.helpers.TestFunction.failure;
 import static io.knotx.fragments.engine.helpers.TestFunction.fatal;
 import static io.knotx.fragments.engine.helpers.TestFunction.success;
+import static io.knotx.fragments.engine.helpers.TestFunction.successWithCopy;
+import static io.knotx.fragments.engine.helpers.TestFunction.successWithDelay;
 import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.knotx.fragments.api.Fragment;
@@ -36,6 +41,7 @@ import io.knotx.fragments.handler.api.exception.ActionFatalException;
 import io.knotx.server.api.context.ClientRequest;
 import io.reactivex.Single;
 import io.reactivex.exceptions.CompositeException;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
@@ -235,6 +241,138 @@ class TaskEngineCompositeNodeTest {
   }
 
 
+  @Test
+  @DisplayName("Expect payload entry update kept when a later parallel action returns an equal copy of the payload")
+  void expectPayloadUpdateKeptWhenLaterActionReturnsCopy(VertxTestContext testContext,
+      Vertx vertx) throws Throwable {
+    // given
+    Fragment fragment = new Fragment("snippet", new JsonObject(), INITIAL_BODY)
+        .appendPayload("shared", new JsonObject().put("v", 1));
+    FragmentEventContext context = new FragmentEventContext(new FragmentEvent(fragment),
+        new ClientRequest());
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("shared", new JsonObject().put("v", 2)),
+                NO_TRANSITIONS),
+            new SingleNode("B", successWithCopy(), NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, context);
+
+    // then
+    verifyExecution(result, testContext,
+        fragmentEvent -> assertEquals(new JsonObject().put("v", 2),
+            fragmentEvent.getFragment().getPayload().getJsonObject("shared")));
+  }
+
+  @Test
+  @DisplayName("Expect payload entries merged in declaration order when parallel actions update the same key")
+  void expectPayloadMergedInDeclarationOrder(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("key", "A"),
+                Collections.singletonMap(SUCCESS_TRANSITION,
+                    new SingleNode("A-delay", successWithDelay(200), NO_TRANSITIONS))),
+            new SingleNode("B", appendPayload("key", "B"), NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext,
+        fragmentEvent -> assertEquals("B",
+            fragmentEvent.getFragment().getPayload().getString("key")));
+  }
+
+  @Test
+  @DisplayName("Expect parallel actions do not see payload updates of other parallel actions")
+  void expectIsolatedParallelPayloads(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("A", "A"), NO_TRANSITIONS),
+            new SingleNode("B", appendPayloadBasingOnContext("A", "B", ":B"), NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      JsonObject payload = fragmentEvent.getFragment().getPayload();
+      assertEquals("A", payload.getString("A"));
+      assertEquals("null:B", payload.getString("B"));
+    });
+  }
+
+  @Test
+  @DisplayName("Expect partial results and timeout transition when parallel processing times out")
+  void expectPartialResultsWhenTimeout(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    JsonObject taskAPayload = new JsonObject().put("key", "taskAOperation");
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("A", taskAPayload), NO_TRANSITIONS),
+            new SingleNode("B", successWithDelay(2000), NO_TRANSITIONS)
+        ), null, null, 200, "_partial",
+        new SingleNode("partial", success(), NO_TRANSITIONS)
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertEquals(Status.SUCCESS, fragmentEvent.getStatus());
+      assertEquals(taskAPayload, fragmentEvent.getFragment().getPayload().getJsonObject("A"));
+      verifyAllLogEntries(fragmentEvent.getLogAsJson(),
+          Operation.exact("task", "A", "SUCCESS", 0),
+          Operation.exact("task", "B", "TIMEOUT", 1),
+          Operation.exact("task", COMPOSITE_NODE_ID, "SUCCESS", 2),
+          Operation.exact("task", "partial", "SUCCESS", 3)
+      );
+    });
+  }
+
+  @Test
+  @DisplayName("Expect parallel processing timeout handled on the context the task was started on")
+  void expectTimeoutHandledOnTaskContext(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Context taskContext = vertx.getOrCreateContext();
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", successWithDelay(2000), NO_TRANSITIONS)
+        ), null, null, 200, "_partial", null
+    );
+
+    // when
+    Single<FragmentEvent> result = Single.<Single<FragmentEvent>>create(
+        emitter -> taskContext.runOnContext(v -> emitter
+            .onSuccess(new TaskEngine(vertx).start("task", rootNode, eventContext))))
+        .flatMap(single -> single)
+        .map(fragmentEvent -> {
+          assertSame(taskContext, Vertx.currentContext());
+          return fragmentEvent;
+        });
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> verifyAllLogEntries(
+        fragmentEvent.getLogAsJson(),
+        Operation.exact("task", "A", "TIMEOUT", 0),
+        Operation.exact("task", COMPOSITE_NODE_ID, "SUCCESS", 1)
+    ));
+  }
+
   @Test
   @DisplayName("Expect success status when parallel inside parallel ends successfully")
   void inception(VertxTestContext testContext, Vertx vertx) throws Throwable {
@@ -32,16 +32,19 @@ import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.server.api.context.ClientRequest;
 import io.reactivex.Single;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -272,6 +275,131 @@ class TaskEngineSingleOperationTest {
         ));
   }
 
+  @Test
+  @DisplayName("Expect non-blocking operation is executed on event loop thread.")
+  void expectNonBlockingOperationOnEventLoop(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    SingleNode rootNode = new SingleNode("first", threadCheck(), NO_TRANSITIONS, false);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext,
+        event -> assertEquals("event-loop", event.getFragment().getBody()));
+  }
+
+  @Test
+  @DisplayName("Expect blocking operation is executed on worker thread.")
+  void expectBlockingOperationOnWorker(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    SingleNode rootNode = new SingleNode("first", threadCheck(), NO_TRANSITIONS, true);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext,
+        event -> assertEquals("worker", event.getFragment().getBody()));
+  }
+
+  @Test
+  @DisplayName("Expect blocking operation is executed on a virtual thread when virtual threads enabled.")
+  void expectBlockingOperationWithVirtualThreads(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Method isVirtual = virtualThreadCheck();
+    Assumptions.assumeTrue(isVirtual != null, "Virtual threads require JDK 21+");
+    SingleNode rootNode = new SingleNode("first", context -> {
+      Fragment fragment = context.getFragment();
+      fragment.setBody(String.valueOf(isVirtual(isVirtual)));
+      return Single.just(new FragmentResult(fragment, SUCCESS_TRANSITION));
+    }, NO_TRANSITIONS, true);
+    FragmentsEngineOptions options = new FragmentsEngineOptions().setVirtualThreads(true);
+    TaskEngine tested = new TaskEngine(vertx, options);
+
+    // when
+    Single<FragmentEvent> result = tested.start("task", rootNode, eventContext)
+        .doFinally(tested::close);
+
+    // then
+    verifyExecution(result, testContext, event -> {
+      assertEquals(Status.SUCCESS, event.getStatus());
+      assertEquals("true", event.getFragment().getBody());
+    });
+  }
+
+  private static Method virtualThreadCheck() {
+    try {
+      return Thread.class.getMethod("isVirtual");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static boolean isVirtual(Method isVirtual) {
+    try {
+      return (Boolean) isVirtual.invoke(Thread.currentThread());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  @DisplayName("Expect long chain of synchronous non-blocking operations is processed.")
+  void expectLongChainProcessed(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    int chainLength = 10_000;
+    Node rootNode = null;
+    for (int i = chainLength; i > 0; i--) {
+      rootNode = new SingleNode("node" + i, success(), rootNode == null ? NO_TRANSITIONS
+          : Collections.singletonMap(SUCCESS_TRANSITION, rootNode), false);
+    }
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, event -> {
+      assertEquals(Status.SUCCESS, event.getStatus());
+      assertEquals(chainLength, event.getLogAsJson().getJsonArray("operations").size());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect operation is not invoked and timeout logged when request deadline exceeded.")
+  void expectNoInvocationWhenDeadlineExceeded(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    FragmentEventContext expiredContext = new FragmentEventContext(
+        new FragmentEvent(initialFragment), new ClientRequest(), System.currentTimeMillis() - 1);
+    SingleNode rootNode = new SingleNode("first", appendBody(":updated"), NO_TRANSITIONS);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, expiredContext);
+
+    // then
+    verifyExecution(result, testContext, event -> {
+      assertEquals(Status.FAILURE, event.getStatus());
+      assertEquals(INITIAL_BODY, event.getFragment().getBody());
+      verifyAllLogEntries(event.getLogAsJson(),
+          Operation.exact("task", "first", "TIMEOUT", 0),
+          Operation.exact("task", "first", "UNSUPPORTED_TRANSITION", 1));
+    });
+  }
+
+  private Function<FragmentContext, Single<FragmentResult>> threadCheck() {
+    return context -> {
+      Fragment fragment = context.getFragment();
+      fragment.setBody(Context.isOnEventLoopThread() ? "event-loop"
+          : Context.isOnWorkerThread() ? "worker" : "other");
+      return Single.just(new FragmentResult(fragment, SUCCESS_TRANSITION));
+    };
+  }
+
   private void verifyExecution(Single<FragmentEvent> result, VertxTestContext testContext,
       Consumer<FragmentEvent> successConsumer) throws Throwable {
     // execute
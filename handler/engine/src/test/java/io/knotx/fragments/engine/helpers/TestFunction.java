@@ -46,6 +46,14 @@ public interface TestFunction extends Function<FragmentContext, Single<FragmentR
     };
   }
 
+  static TestFunction successWithCopy() {
+    return fragmentContext -> {
+      Fragment fragment = new Fragment(fragmentContext.getFragment().toJson().copy());
+      FragmentResult result = new FragmentResult(fragment, SUCCESS_TRANSITION);
+      return Single.just(result);
+    };
+  }
+
   static TestFunction failure() {
     return fragmentContext -> {
       throw new RuntimeException();